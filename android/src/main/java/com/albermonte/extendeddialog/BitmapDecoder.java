@@ -0,0 +1,144 @@
+package com.albermonte.extendeddialog;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.ImageDecoder;
+import android.os.Build;
+import android.util.Size;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes raster logos straight to the size they are displayed at.
+ *
+ * API 28+ uses {@link ImageDecoder} with a target size (hardware bitmaps, RGB_565 for
+ * opaque images when software is needed). Older releases read the bounds first and
+ * subsample with {@link BitmapFactory}, decoding into a {@link BitmapPool} bitmap when one
+ * fits. Sources above the pixel budget are rejected before any pixel memory is allocated.
+ * Returned bitmaps carry one pool reference owned by the caller.
+ */
+final class BitmapDecoder {
+
+    /** 4096 x 4096; anything larger is almost certainly not a logo. */
+    static final long DEFAULT_MAX_SOURCE_PIXELS = 4096L * 4096L;
+
+    private static volatile long maxSourcePixels = DEFAULT_MAX_SOURCE_PIXELS;
+
+    private BitmapDecoder() {}
+
+    static void setMaxSourcePixels(long pixels) {
+        maxSourcePixels = pixels > 0 ? pixels : DEFAULT_MAX_SOURCE_PIXELS;
+    }
+
+    static Bitmap decode(byte[] bytes, int offset, int length, int targetWidth, int targetHeight) throws IOException {
+        return decode(ByteBuffer.wrap(bytes, offset, length), targetWidth, targetHeight);
+    }
+
+    /** {@code buffer} must be array-backed; its remaining bytes are decoded. */
+    static Bitmap decode(ByteBuffer buffer, int targetWidth, int targetHeight) throws IOException {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            return decodeWithImageDecoder(buffer, targetWidth, targetHeight);
+        }
+        int offset = buffer.arrayOffset() + buffer.position();
+        return decodeWithBitmapFactory(buffer.array(), offset, buffer.remaining(), targetWidth, targetHeight);
+    }
+
+    private static Bitmap decodeWithImageDecoder(ByteBuffer buffer, int targetWidth, int targetHeight) throws IOException {
+        ImageDecoder.Source source = ImageDecoder.createSource(buffer);
+        try {
+            return ImageDecoder.decodeBitmap(source, (decoder, info, src) -> {
+                Size size = info.getSize();
+                if (exceedsPixelBudget(size.getWidth(), size.getHeight())) {
+                    // The header listener can't throw checked exceptions; unwrapped below.
+                    throw new PixelBudgetExceededException(size.getWidth(), size.getHeight());
+                }
+                int[] scaled = scaledSize(size.getWidth(), size.getHeight(), targetWidth, targetHeight);
+                decoder.setTargetSize(scaled[0], scaled[1]);
+                // The default allocator picks hardware bitmaps when it can; LOW_RAM lets the
+                // software fallback use RGB_565 for opaque images.
+                decoder.setMemorySizePolicy(ImageDecoder.MEMORY_POLICY_LOW_RAM);
+            });
+        } catch (PixelBudgetExceededException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    private static Bitmap decodeWithBitmapFactory(byte[] bytes, int offset, int length, int targetWidth, int targetHeight)
+        throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(bytes, offset, length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Unsupported image format");
+        }
+        if (exceedsPixelBudget(options.outWidth, options.outHeight)) {
+            throw new IOException(pixelBudgetMessage(options.outWidth, options.outHeight));
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize(options.outWidth, options.outHeight, targetWidth, targetHeight);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            // Hardware bitmaps live in graphics memory and can't be reused through inBitmap.
+            options.inPreferredConfig = Bitmap.Config.HARDWARE;
+            return BitmapFactory.decodeByteArray(bytes, offset, length, options);
+        }
+        if ("image/jpeg".equals(options.outMimeType)) {
+            // JPEG has no alpha channel, so 565 halves the memory with no visible change.
+            options.inPreferredConfig = Bitmap.Config.RGB_565;
+        }
+        // Round up: decoders differ on how they round a subsampled edge.
+        int sample = options.inSampleSize;
+        int width = (options.outWidth + sample - 1) / sample;
+        int height = (options.outHeight + sample - 1) / sample;
+        options.inMutable = true;
+        options.inBitmap = BitmapPool.getReusable(width, height, options.inPreferredConfig);
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeByteArray(bytes, offset, length, options);
+        } catch (IllegalArgumentException e) {
+            // The pooled bitmap didn't fit after all; give it back and decode fresh.
+            BitmapPool.release(options.inBitmap);
+            options.inBitmap = null;
+            bitmap = BitmapFactory.decodeByteArray(bytes, offset, length, options);
+        }
+        if (options.inBitmap != null && bitmap != options.inBitmap) {
+            BitmapPool.release(options.inBitmap);
+        }
+        BitmapPool.track(bitmap);
+        return bitmap;
+    }
+
+    private static boolean exceedsPixelBudget(int width, int height) {
+        return (long) width * height > maxSourcePixels;
+    }
+
+    private static String pixelBudgetMessage(int width, int height) {
+        return "Image " + width + "x" + height + " exceeds the pixel budget";
+    }
+
+    /** Largest power-of-two subsample that keeps both dimensions at or above the target. */
+    static int sampleSize(int sourceWidth, int sourceHeight, int targetWidth, int targetHeight) {
+        int sample = 1;
+        if (targetWidth <= 0 || targetHeight <= 0) return sample;
+        while (sourceWidth / (sample * 2) >= targetWidth && sourceHeight / (sample * 2) >= targetHeight) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    /** Fits the source inside the target box, preserving aspect ratio and never upscaling. */
+    static int[] scaledSize(int sourceWidth, int sourceHeight, int targetWidth, int targetHeight) {
+        if (targetWidth <= 0 || targetHeight <= 0 || (sourceWidth <= targetWidth && sourceHeight <= targetHeight)) {
+            return new int[] { sourceWidth, sourceHeight };
+        }
+        float scale = Math.min((float) targetWidth / sourceWidth, (float) targetHeight / sourceHeight);
+        return new int[] { Math.max(1, Math.round(sourceWidth * scale)), Math.max(1, Math.round(sourceHeight * scale)) };
+    }
+
+    private static final class PixelBudgetExceededException extends RuntimeException {
+
+        PixelBudgetExceededException(int width, int height) {
+            super(pixelBudgetMessage(width, height));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.albermonte.extendeddialog;
+
+import android.graphics.Bitmap;
+import android.util.LruCache;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Process-wide LRU cache of decoded logo bitmaps, bounded by allocation size.
+ * Entries are keyed by image source plus target pixel size so the same logo
+ * rendered at 24dp and 48dp is cached independently.
+ *
+ * The cache holds one {@link BitmapPool} reference to each entry and releases it on
+ * eviction, so bitmaps no longer displayed anywhere can be reused for later decodes.
+ */
+final class BitmapMemoryCache {
+
+    // Long data URLs are hashed so keys don't pin hundreds of KB of base64 text.
+    private static final int MAX_RAW_KEY_LENGTH = 256;
+
+    private static final LruCache<String, Bitmap> CACHE = new LruCache<String, Bitmap>(defaultMaxSizeBytes()) {
+        @Override
+        protected int sizeOf(String key, Bitmap bitmap) {
+            return bitmap.getAllocationByteCount();
+        }
+
+        @Override
+        protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+            if (oldValue != newValue) {
+                BitmapPool.release(oldValue);
+            }
+        }
+    };
+
+    static final MemoryTrimmer.Trimmable TRIMMABLE = new MemoryTrimmer.Trimmable() {
+        @Override
+        public String name() {
+            return "bitmaps";
+        }
+
+        @Override
+        public int entryCount() {
+            return CACHE.snapshot().size();
+        }
+
+        @Override
+        public long sizeBytes() {
+            return CACHE.size();
+        }
+
+        @Override
+        public void trimTo(float fraction) {
+            if (fraction <= 0f) {
+                CACHE.evictAll();
+            } else {
+                CACHE.trimToSize((int) (CACHE.size() * fraction));
+            }
+        }
+
+        @Override
+        public void shrinkBudget(int divisor) {
+            BitmapMemoryCache.shrinkBudget(divisor);
+        }
+    };
+
+    private BitmapMemoryCache() {}
+
+    /** Divides the byte budget, e.g. on low-RAM devices. */
+    static void shrinkBudget(int divisor) {
+        CACHE.resize(Math.max(1, CACHE.maxSize() / divisor));
+    }
+
+    private static int defaultMaxSizeBytes() {
+        // 1/16 of the heap comfortably fits a few hundred logo-sized bitmaps.
+        return (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 16);
+    }
+
+    static String key(String source, int width, int height) {
+        return sourceKey(source) + "@" + width + "x" + height;
+    }
+
+    /** Peeks without taking a reference; only use to test for presence. */
+    static Bitmap get(String key) {
+        return CACHE.get(key);
+    }
+
+    /** Returns the cached bitmap with a {@link BitmapPool} reference the caller must release. */
+    static Bitmap acquire(String key) {
+        Bitmap bitmap = CACHE.get(key);
+        // An eviction racing with this lookup may already have pooled the bitmap.
+        return bitmap != null && BitmapPool.retain(bitmap) ? bitmap : null;
+    }
+
+    static void put(String key, Bitmap bitmap) {
+        if (key == null || bitmap == null) return;
+        if (BitmapPool.retain(bitmap)) {
+            CACHE.put(key, bitmap);
+        }
+    }
+
+    /** Stable key for {@code source}; long data URLs are reduced to a SHA-256 digest. */
+    static String sourceKey(String source) {
+        if (source.length() <= MAX_RAW_KEY_LENGTH) {
+            return source;
+        }
+        try {
+            // Feed chars through a small chunk buffer instead of copying the whole URL with getBytes().
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] chunk = new byte[4096];
+            int filled = 0;
+            for (int i = 0; i < source.length(); i++) {
+                char c = source.charAt(i);
+                chunk[filled++] = (byte) (c >> 8);
+                chunk[filled++] = (byte) c;
+                if (filled == chunk.length) {
+                    digest.update(chunk, 0, filled);
+                    filled = 0;
+                }
+            }
+            digest.update(chunk, 0, filled);
+            byte[] hash = digest.digest();
+            StringBuilder builder = new StringBuilder("sha256:");
+            for (byte b : hash) {
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return builder.append(':').append(source.length()).toString();
+        } catch (NoSuchAlgorithmException e) {
+            return source;
+        }
+    }
+}
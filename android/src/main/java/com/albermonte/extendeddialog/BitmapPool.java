@@ -0,0 +1,195 @@
+package com.albermonte.extendeddialog;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Build;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * Reference-counted pool of software bitmaps, bucketed by allocation size.
+ *
+ * A bitmap is referenced once by {@link BitmapMemoryCache} and once per ImageView it is
+ * bound to. When the last reference is released (cache eviction, sheet dismissed) it is
+ * parked here and handed back out as an {@code inBitmap} or SVG raster target instead of
+ * being left to the GC. Hardware and immutable bitmaps cannot be reused and are ignored.
+ */
+final class BitmapPool {
+
+    /** A pooled bitmap may be at most this many times larger than the request. */
+    private static final int MAX_OVERSIZE_FACTOR = 4;
+
+    private static final Object LOCK = new Object();
+    private static final TreeMap<Integer, ArrayDeque<Bitmap>> BUCKETS = new TreeMap<>();
+    private static final ArrayDeque<Bitmap> AGE_ORDER = new ArrayDeque<>();
+    // Weak so a bitmap whose view was collected without being released doesn't leak.
+    private static final WeakHashMap<Bitmap, int[]> REFERENCES = new WeakHashMap<>();
+
+    private static long maxBytes = Runtime.getRuntime().maxMemory() / 32;
+    private static long pooledBytes;
+
+    static final MemoryTrimmer.Trimmable TRIMMABLE = new MemoryTrimmer.Trimmable() {
+        @Override
+        public String name() {
+            return "bitmapPool";
+        }
+
+        @Override
+        public int entryCount() {
+            synchronized (LOCK) {
+                return AGE_ORDER.size();
+            }
+        }
+
+        @Override
+        public long sizeBytes() {
+            return BitmapPool.sizeBytes();
+        }
+
+        @Override
+        public void trimTo(float fraction) {
+            synchronized (LOCK) {
+                trimToLocked((long) (pooledBytes * fraction));
+            }
+        }
+
+        @Override
+        public void shrinkBudget(int divisor) {
+            BitmapPool.shrinkBudget(divisor);
+        }
+    };
+
+    private BitmapPool() {}
+
+    /** Divides the byte budget, e.g. on low-RAM devices. */
+    static void shrinkBudget(int divisor) {
+        synchronized (LOCK) {
+            maxBytes /= divisor;
+            trimToLocked(maxBytes);
+        }
+    }
+
+    static boolean isPoolable(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) return false;
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.O || bitmap.getConfig() != Bitmap.Config.HARDWARE;
+    }
+
+    /** Starts reference counting a newly created bitmap with one reference held by the caller. */
+    static void track(Bitmap bitmap) {
+        if (!isPoolable(bitmap)) return;
+        synchronized (LOCK) {
+            REFERENCES.put(bitmap, new int[] { 1 });
+        }
+    }
+
+    /**
+     * Adds a reference. Returns false if {@code bitmap} has already gone back to the pool,
+     * in which case the caller must treat it as a cache miss.
+     */
+    static boolean retain(Bitmap bitmap) {
+        if (!isPoolable(bitmap)) return true;
+        synchronized (LOCK) {
+            int[] count = REFERENCES.get(bitmap);
+            if (count == null) return false;
+            count[0]++;
+            return true;
+        }
+    }
+
+    static void release(Bitmap bitmap) {
+        if (!isPoolable(bitmap)) return;
+        synchronized (LOCK) {
+            int[] count = REFERENCES.get(bitmap);
+            if (count == null || --count[0] > 0) return;
+            REFERENCES.remove(bitmap);
+            int size = bitmap.getAllocationByteCount();
+            if (size > maxBytes / 4) return;
+            BUCKETS.computeIfAbsent(size, (key) -> new ArrayDeque<>()).addLast(bitmap);
+            AGE_ORDER.addLast(bitmap);
+            pooledBytes += size;
+            trimToLocked(maxBytes);
+        }
+    }
+
+    /**
+     * Takes a pooled bitmap whose allocation can hold {@code width} x {@code height} in
+     * {@code config}, or null. The bitmap is tracked with one reference held by the caller;
+     * use {@link #get} for a cleared bitmap of exactly that size.
+     */
+    static Bitmap getReusable(int width, int height, Bitmap.Config config) {
+        int needed = width * height * bytesPerPixel(config);
+        synchronized (LOCK) {
+            Integer size = BUCKETS.ceilingKey(needed);
+            if (size == null || size > (long) needed * MAX_OVERSIZE_FACTOR) return null;
+            Bitmap bitmap = BUCKETS.get(size).peekLast();
+            removeLocked(bitmap);
+            REFERENCES.put(bitmap, new int[] { 1 });
+            return bitmap;
+        }
+    }
+
+    /** A transparent, tracked bitmap of exactly {@code width} x {@code height}, pooled if possible. */
+    static Bitmap get(int width, int height, Bitmap.Config config) {
+        Bitmap bitmap = getReusable(width, height, config);
+        if (bitmap != null) {
+            try {
+                bitmap.reconfigure(width, height, config);
+                bitmap.eraseColor(Color.TRANSPARENT);
+                return bitmap;
+            } catch (IllegalArgumentException e) {
+                forget(bitmap);
+            }
+        }
+        bitmap = Bitmap.createBitmap(width, height, config);
+        track(bitmap);
+        return bitmap;
+    }
+
+    /** Drops a bitmap from reference counting without pooling it, e.g. after a failed reuse. */
+    static void forget(Bitmap bitmap) {
+        synchronized (LOCK) {
+            REFERENCES.remove(bitmap);
+        }
+    }
+
+    static long sizeBytes() {
+        synchronized (LOCK) {
+            return pooledBytes;
+        }
+    }
+
+    private static void trimToLocked(long bytes) {
+        while (pooledBytes > bytes && !AGE_ORDER.isEmpty()) {
+            removeLocked(AGE_ORDER.peekFirst());
+        }
+    }
+
+    private static void removeLocked(Bitmap bitmap) {
+        int size = bitmap.getAllocationByteCount();
+        ArrayDeque<Bitmap> bucket = BUCKETS.get(size);
+        if (bucket != null) {
+            for (Iterator<Bitmap> it = bucket.iterator(); it.hasNext();) {
+                if (it.next() == bitmap) {
+                    it.remove();
+                    break;
+                }
+            }
+            if (bucket.isEmpty()) BUCKETS.remove(size);
+        }
+        for (Iterator<Bitmap> it = AGE_ORDER.iterator(); it.hasNext();) {
+            if (it.next() == bitmap) {
+                it.remove();
+                break;
+            }
+        }
+        pooledBytes -= size;
+    }
+
+    private static int bytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) return 2;
+        if (config == Bitmap.Config.ALPHA_8) return 1;
+        return 4;
+    }
+}
@@ -0,0 +1,129 @@
+package com.albermonte.extendeddialog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Decodes the payload of a {@code data:} URL straight from the source String into a
+ * per-thread reusable buffer, without substring, intermediate byte[] or URLDecoder copies.
+ *
+ * The returned buffer is only valid until the next decode on the same thread, so callers
+ * must hand it to the image decoder or SVG parser before decoding another URL.
+ */
+final class DataUrlDecoder {
+
+    private static final String BASE64_MARKER = ";base64";
+
+    /** Buffers above this size are not kept around between decodes. */
+    private static final int MAX_RETAINED_BYTES = 1024 * 1024;
+
+    private static final ThreadLocal<byte[]> BUFFER = new ThreadLocal<>();
+
+    private static final byte[] BASE64_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(BASE64_VALUES, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_VALUES[alphabet.charAt(i)] = (byte) i;
+        }
+        // Browsers also accept the URL-safe alphabet.
+        BASE64_VALUES['-'] = 62;
+        BASE64_VALUES['_'] = 63;
+    }
+
+    private DataUrlDecoder() {}
+
+    /** Supports `;base64` and percent-encoded payloads. */
+    static ByteBuffer decode(String source) throws IOException {
+        int comma = source.indexOf(',');
+        if (comma < 0) throw new IOException("Malformed data URL");
+        int start = comma + 1;
+        int end = source.length();
+        if (isBase64(source, comma)) {
+            return decodeBase64(source, start, end);
+        }
+        return decodePercentEncoded(source, start, end);
+    }
+
+    /** Releases this thread's buffer if an unusually large payload grew it. */
+    static void trimThreadBuffer() {
+        byte[] buffer = BUFFER.get();
+        if (buffer != null && buffer.length > MAX_RETAINED_BYTES) {
+            BUFFER.remove();
+        }
+    }
+
+    private static boolean isBase64(String source, int headerEnd) {
+        for (int i = headerEnd - BASE64_MARKER.length(); i >= 0; i--) {
+            if (source.regionMatches(true, i, BASE64_MARKER, 0, BASE64_MARKER.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ByteBuffer decodeBase64(String source, int start, int end) throws IOException {
+        byte[] out = buffer(((end - start) / 4 + 1) * 3);
+        int length = 0;
+        int accumulator = 0;
+        int bits = 0;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '=') break;
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') continue;
+            int value = c < 128 ? BASE64_VALUES[c] : -1;
+            if (value < 0) throw new IOException("Invalid base64 character in data URL");
+            accumulator = (accumulator << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[length++] = (byte) (accumulator >> bits);
+            }
+        }
+        return ByteBuffer.wrap(out, 0, length).slice();
+    }
+
+    private static ByteBuffer decodePercentEncoded(String source, int start, int end) throws IOException {
+        // Worst case: every char is non-ASCII and needs 3 UTF-8 bytes.
+        byte[] out = buffer((end - start) * 3);
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '%') {
+                if (i + 2 >= end) throw new IOException("Truncated percent escape in data URL");
+                int high = Character.digit(source.charAt(i + 1), 16);
+                int low = Character.digit(source.charAt(i + 2), 16);
+                if (high < 0 || low < 0) throw new IOException("Invalid percent escape in data URL");
+                out[length++] = (byte) ((high << 4) | low);
+                i += 2;
+            } else if (c < 0x80) {
+                out[length++] = (byte) c;
+            } else if (c < 0x800) {
+                out[length++] = (byte) (0xC0 | (c >> 6));
+                out[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(source.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, source.charAt(++i));
+                out[length++] = (byte) (0xF0 | (codePoint >> 18));
+                out[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                out[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                out[length++] = (byte) (0xE0 | (c >> 12));
+                out[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return ByteBuffer.wrap(out, 0, length).slice();
+    }
+
+    private static byte[] buffer(int minimumSize) {
+        byte[] buffer = BUFFER.get();
+        if (buffer == null || buffer.length < minimumSize) {
+            buffer = new byte[Math.max(minimumSize, 16 * 1024)];
+            BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+}
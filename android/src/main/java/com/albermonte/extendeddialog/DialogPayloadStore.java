@@ -0,0 +1,72 @@
+package com.albermonte.extendeddialog;
+
+import androidx.fragment.app.FragmentActivity;
+import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.ViewModelProvider;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Activity-scoped home for dialog payloads (sheet rows, select options and selection) so
+ * fragments only carry a session id in their arguments. Saved state then stays a few bytes
+ * however long the lists are, and configuration changes keep the live objects, including
+ * the current selection. A payload does not survive process death; the fragment that owned
+ * it dismisses itself, as the call waiting for its result is gone too.
+ * Public only so {@link ViewModelProvider} can instantiate it. Main thread only.
+ */
+public final class DialogPayloadStore extends ViewModel {
+
+    /** Payload of a select dialog. */
+    static final class Selection {
+
+        final OptionList options;
+        final OptionSelection selection;
+
+        Selection(OptionList options, OptionSelection selection) {
+            this.options = options;
+            this.selection = selection;
+        }
+    }
+
+    /** Payload of a row sheet; {@code rows} is replaced when the open sheet is updated. */
+    static final class Rows {
+
+        List<SheetRow> rows;
+
+        Rows(List<SheetRow> rows) {
+            this.rows = rows;
+        }
+    }
+
+    private final Map<String, Object> payloads = new HashMap<>();
+    private int nextId;
+
+    public DialogPayloadStore() {}
+
+    static DialogPayloadStore of(FragmentActivity activity) {
+        return new ViewModelProvider(activity).get(DialogPayloadStore.class);
+    }
+
+    /** Stores {@code payload} and returns the session id to pass to the fragment. */
+    String put(Object payload) {
+        String id = "dialog-" + nextId++;
+        payloads.put(id, payload);
+        return id;
+    }
+
+    /** The payload stored under {@code id}, or null if it is gone or of another type. */
+    <T> T get(String id, Class<T> type) {
+        Object payload = id != null ? payloads.get(id) : null;
+        return type.isInstance(payload) ? type.cast(payload) : null;
+    }
+
+    void remove(String id) {
+        payloads.remove(id);
+    }
+
+    @Override
+    protected void onCleared() {
+        payloads.clear();
+    }
+}
@@ -0,0 +1,534 @@
+package com.albermonte.extendeddialog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent cache of encoded image bytes, keyed by source URL.
+ *
+ * Layout on disk:
+ * - {@code data.<generation>}: append-only records ({@code magic, key, metadata, payload, crc32}),
+ *   where the metadata holds the HTTP validators and expiry used for revalidation.
+ * - {@code index}: memory-mapped open-addressing table of {@code keyHash -> record} slots
+ *   plus a logical clock used for LRU ordering. A slot also holds the entry's expiry, which
+ *   takes precedence over the record's, so a {@code 304} is recorded without rewriting data.
+ *
+ * Records are fsynced before their index slot is written, and every read re-validates
+ * the record (key and CRC), so a crash can at worst lose the entries written last.
+ * When the data file or the table fills up, live entries are copied most-recently-used
+ * first into a new generation until half the budget is used; the new index is then
+ * swapped in with an atomic rename.
+ */
+final class DiskImageCache {
+
+    private static final String DIRECTORY_NAME = "extended-dialog-images";
+    private static final String INDEX_FILE = "index";
+    private static final String INDEX_TEMP_FILE = "index.tmp";
+    private static final String DATA_FILE_PREFIX = "data.";
+
+    private static final int INDEX_MAGIC = 0x45444958; // "EDIX"
+    private static final int INDEX_VERSION = 3;
+    private static final int RECORD_MAGIC = 0x45445232; // "EDR2"
+
+    private static final int HEADER_SIZE = 64;
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_GENERATION = 8;
+    private static final int HEADER_CLOCK = 16;
+
+    private static final int SLOT_SIZE = 40;
+    private static final int SLOT_HASH = 0;
+    private static final int SLOT_OFFSET = 8;
+    private static final int SLOT_LENGTH = 16;
+    private static final int SLOT_ACCESS = 24;
+    private static final int SLOT_EXPIRES = 32;
+
+    private static final long EMPTY = 0L;
+    private static final long TOMBSTONE = -1L;
+
+    static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+    static final int DEFAULT_CAPACITY = 2048;
+
+    private static File installDirectory;
+    private static DiskImageCache shared;
+    private static boolean sharedOpenFailed;
+
+    private final File directory;
+    private final long maxBytes;
+    private final int capacity;
+
+    private MappedByteBuffer index;
+    private RandomAccessFile dataFile;
+    private FileChannel data;
+    private long generation;
+    private long clock;
+    private int liveEntries;
+    private int usedSlots;
+
+    /** Records where the shared cache lives; it is opened lazily on first use off the main thread. */
+    static synchronized void install(File cacheDir) {
+        if (installDirectory == null && cacheDir != null) {
+            installDirectory = new File(cacheDir, DIRECTORY_NAME);
+        }
+    }
+
+    /** Returns the shared cache, or {@code null} when not installed or not openable. */
+    static synchronized DiskImageCache shared() {
+        if (shared == null && installDirectory != null && !sharedOpenFailed) {
+            try {
+                shared = new DiskImageCache(installDirectory, DEFAULT_MAX_BYTES, DEFAULT_CAPACITY);
+            } catch (IOException e) {
+                sharedOpenFailed = true;
+                android.util.Log.w("ExtendedDialog", "Disk image cache unavailable: " + e.getMessage());
+            }
+        }
+        return shared;
+    }
+
+    DiskImageCache(File directory, long maxBytes, int capacity) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.capacity = capacity;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        open();
+    }
+
+    synchronized byte[] get(String key) {
+        Entry entry = getEntry(key);
+        return entry != null ? entry.payload : null;
+    }
+
+    synchronized Entry getEntry(String key) {
+        if (index == null) return null;
+        long hash = hash(key);
+        int slot = findSlot(hash);
+        if (slot < 0) return null;
+        int base = slotBase(slot);
+        Entry entry = readRecord(key, index.getLong(base + SLOT_OFFSET), index.getInt(base + SLOT_LENGTH));
+        if (entry == null) {
+            // Torn or stale record; forget it so the next put can replace it.
+            index.putLong(base + SLOT_HASH, TOMBSTONE);
+            liveEntries--;
+            return null;
+        }
+        index.putLong(base + SLOT_ACCESS, tick());
+        return new Entry(entry.payload, entry.etag, entry.lastModified, index.getLong(base + SLOT_EXPIRES));
+    }
+
+    /** Stores {@code payload} without validators; it never expires. */
+    synchronized void put(String key, byte[] payload) {
+        put(key, payload, null, null, Long.MAX_VALUE);
+    }
+
+    /**
+     * Stores {@code payload} with the response's {@code ETag} and {@code Last-Modified}
+     * (either may be null) and the wall-clock time after which it must be revalidated.
+     */
+    synchronized void put(String key, byte[] payload, String etag, String lastModified, long expiresAt) {
+        if (index == null || payload == null) return;
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] metadata = encodeMetadata(etag, lastModified, expiresAt);
+        int recordLength = 20 + keyBytes.length + metadata.length + payload.length;
+        if (recordLength > maxBytes / 4) return;
+        try {
+            long hash = hash(key);
+            boolean exists = findSlot(hash) >= 0;
+            if (data.size() + recordLength > maxBytes || (!exists && (usedSlots + 1) * 4 > capacity * 3)) {
+                compact(maxBytes / 2 - recordLength);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(metadata);
+            crc.update(payload);
+            ByteBuffer record = ByteBuffer.allocate(recordLength);
+            record.putInt(RECORD_MAGIC).putInt(keyBytes.length).put(keyBytes).putInt(metadata.length).put(metadata);
+            record.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            record.flip();
+            long offset = data.size();
+            while (record.hasRemaining()) {
+                data.write(record, offset + record.position());
+            }
+            data.force(false);
+            writeSlot(hash, offset, recordLength, tick(), expiresAt);
+        } catch (IOException e) {
+            android.util.Log.w("ExtendedDialog", "Failed to write disk image cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records a {@code 304} for {@code key}: the new expiry goes into its index slot and the
+     * data file is left alone. Only validators that changed force the record to be rewritten.
+     */
+    synchronized void touch(String key, String etag, String lastModified, long expiresAt) {
+        if (index == null) return;
+        int slot = findSlot(hash(key));
+        if (slot < 0) return;
+        int base = slotBase(slot);
+        Entry entry = readRecord(key, index.getLong(base + SLOT_OFFSET), index.getInt(base + SLOT_LENGTH));
+        if (entry == null) {
+            index.putLong(base + SLOT_HASH, TOMBSTONE);
+            liveEntries--;
+            return;
+        }
+        if (Objects.equals(entry.etag, etag) && Objects.equals(entry.lastModified, lastModified)) {
+            index.putLong(base + SLOT_EXPIRES, expiresAt);
+            index.putLong(base + SLOT_ACCESS, tick());
+        } else {
+            put(key, entry.payload, etag, lastModified, expiresAt);
+        }
+    }
+
+    synchronized void clear() {
+        try {
+            closeFiles();
+            deleteContents();
+            open();
+        } catch (IOException e) {
+            index = null;
+        }
+    }
+
+    /** Bytes currently occupied by the data file, including superseded records. */
+    synchronized long sizeBytes() {
+        try {
+            return data != null ? data.size() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    synchronized int entryCount() {
+        return liveEntries;
+    }
+
+    synchronized void close() {
+        closeFiles();
+        index = null;
+    }
+
+    // MARK: - Index
+
+    private void open() throws IOException {
+        File indexFile = new File(directory, INDEX_FILE);
+        long indexLength = HEADER_SIZE + (long) capacity * SLOT_SIZE;
+        boolean valid = false;
+        if (indexFile.length() == indexLength) {
+            index = map(indexFile, indexLength);
+            valid = index.getInt(HEADER_MAGIC) == INDEX_MAGIC && index.getInt(HEADER_VERSION) == INDEX_VERSION;
+        }
+        if (!valid) {
+            deleteContents();
+            index = map(indexFile, indexLength);
+            index.putInt(HEADER_MAGIC, INDEX_MAGIC);
+            index.putInt(HEADER_VERSION, INDEX_VERSION);
+            index.putLong(HEADER_GENERATION, 0);
+            index.putLong(HEADER_CLOCK, 0);
+            index.force();
+        }
+        generation = index.getLong(HEADER_GENERATION);
+        clock = index.getLong(HEADER_CLOCK);
+        dataFile = new RandomAccessFile(dataFile(generation), "rw");
+        data = dataFile.getChannel();
+        deleteStaleDataFiles();
+
+        // Slots pointing past the end of the data file belong to appends that never hit disk.
+        long dataLength = data.size();
+        liveEntries = 0;
+        usedSlots = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            int base = slotBase(slot);
+            long hash = index.getLong(base + SLOT_HASH);
+            if (hash == EMPTY) continue;
+            usedSlots++;
+            if (hash == TOMBSTONE) continue;
+            if (index.getLong(base + SLOT_OFFSET) + index.getInt(base + SLOT_LENGTH) > dataLength) {
+                index.putLong(base + SLOT_HASH, TOMBSTONE);
+            } else {
+                liveEntries++;
+            }
+        }
+    }
+
+    private static MappedByteBuffer map(File file, long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            raf.setLength(length);
+            // The mapping stays valid after the channel is closed.
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        }
+    }
+
+    private int findSlot(long hash) {
+        int start = (int) ((hash & Long.MAX_VALUE) % capacity);
+        for (int i = 0; i < capacity; i++) {
+            int slot = (start + i) % capacity;
+            long slotHash = index.getLong(slotBase(slot) + SLOT_HASH);
+            if (slotHash == EMPTY) return -1;
+            if (slotHash == hash) return slot;
+        }
+        return -1;
+    }
+
+    private void writeSlot(long hash, long offset, int length, long access, long expiresAt) {
+        int slot = findSlot(hash);
+        if (slot < 0) {
+            int start = (int) ((hash & Long.MAX_VALUE) % capacity);
+            for (int i = 0; i < capacity; i++) {
+                int candidate = (start + i) % capacity;
+                long slotHash = index.getLong(slotBase(candidate) + SLOT_HASH);
+                if (slotHash == EMPTY || slotHash == TOMBSTONE) {
+                    slot = candidate;
+                    if (slotHash == EMPTY) usedSlots++;
+                    break;
+                }
+            }
+            if (slot < 0) return;
+            liveEntries++;
+        }
+        int base = slotBase(slot);
+        index.putLong(base + SLOT_OFFSET, offset);
+        index.putInt(base + SLOT_LENGTH, length);
+        index.putLong(base + SLOT_ACCESS, access);
+        index.putLong(base + SLOT_EXPIRES, expiresAt);
+        // Hash goes last: a slot only becomes visible once its location is written.
+        index.putLong(base + SLOT_HASH, hash);
+    }
+
+    private long tick() {
+        clock++;
+        index.putLong(HEADER_CLOCK, clock);
+        return clock;
+    }
+
+    private static int slotBase(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    // MARK: - Records
+
+    private Entry readRecord(String key, long offset, int length) {
+        try {
+            if (length < 20 || offset < 0 || offset + length > data.size()) return null;
+            ByteBuffer record = ByteBuffer.allocate(length);
+            while (record.hasRemaining()) {
+                if (data.read(record, offset + record.position()) < 0) return null;
+            }
+            record.flip();
+            if (record.getInt() != RECORD_MAGIC) return null;
+            int keyLength = record.getInt();
+            if (keyLength < 0 || keyLength > record.remaining() - 12) return null;
+            byte[] keyBytes = new byte[keyLength];
+            record.get(keyBytes);
+            if (!Arrays.equals(keyBytes, key.getBytes(StandardCharsets.UTF_8))) return null;
+            int metadataLength = record.getInt();
+            if (metadataLength < 0 || metadataLength > record.remaining() - 8) return null;
+            byte[] metadata = new byte[metadataLength];
+            record.get(metadata);
+            int payloadLength = record.getInt();
+            int expectedCrc = record.getInt();
+            if (payloadLength != record.remaining()) return null;
+            byte[] payload = new byte[payloadLength];
+            record.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(metadata);
+            crc.update(payload);
+            if ((int) crc.getValue() != expectedCrc) return null;
+            return decodeMetadata(metadata, payload);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static byte[] encodeMetadata(String etag, String lastModified, long expiresAt) {
+        byte[] etagBytes = etag != null ? etag.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        byte[] lastModifiedBytes = lastModified != null ? lastModified.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        ByteBuffer metadata = ByteBuffer.allocate(16 + etagBytes.length + lastModifiedBytes.length);
+        metadata.putLong(expiresAt);
+        metadata.putInt(etagBytes.length).put(etagBytes);
+        metadata.putInt(lastModifiedBytes.length).put(lastModifiedBytes);
+        return metadata.array();
+    }
+
+    private static Entry decodeMetadata(byte[] metadata, byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(metadata);
+        long expiresAt = buffer.getLong();
+        byte[] etag = new byte[buffer.getInt()];
+        buffer.get(etag);
+        byte[] lastModified = new byte[buffer.getInt()];
+        buffer.get(lastModified);
+        return new Entry(
+            payload,
+            etag.length > 0 ? new String(etag, StandardCharsets.UTF_8) : null,
+            lastModified.length > 0 ? new String(lastModified, StandardCharsets.UTF_8) : null,
+            expiresAt
+        );
+    }
+
+    private void compact(long targetBytes) throws IOException {
+        List<long[]> entries = new ArrayList<>();
+        for (int slot = 0; slot < capacity; slot++) {
+            int base = slotBase(slot);
+            long hash = index.getLong(base + SLOT_HASH);
+            if (hash == EMPTY || hash == TOMBSTONE) continue;
+            entries.add(
+                new long[] {
+                    hash,
+                    index.getLong(base + SLOT_OFFSET),
+                    index.getInt(base + SLOT_LENGTH),
+                    index.getLong(base + SLOT_ACCESS),
+                    index.getLong(base + SLOT_EXPIRES)
+                }
+            );
+        }
+        // Most recently used first.
+        entries.sort((a, b) -> Long.compare(b[3], a[3]));
+        int maxEntries = capacity / 2;
+
+        long nextGeneration = generation + 1;
+        File nextDataFile = dataFile(nextGeneration);
+        List<long[]> kept = new ArrayList<>();
+        try (RandomAccessFile raf = new RandomAccessFile(nextDataFile, "rw"); FileChannel out = raf.getChannel()) {
+            raf.setLength(0);
+            long written = 0;
+            for (long[] entry : entries) {
+                int length = (int) entry[2];
+                if (written + length > targetBytes || kept.size() >= maxEntries) break;
+                ByteBuffer record = ByteBuffer.allocate(length);
+                while (record.hasRemaining()) {
+                    if (data.read(record, entry[1] + record.position()) < 0) break;
+                }
+                if (record.hasRemaining()) continue;
+                record.flip();
+                while (record.hasRemaining()) {
+                    out.write(record, written + record.position());
+                }
+                kept.add(new long[] { entry[0], written, length, entry[3], entry[4] });
+                written += length;
+            }
+            out.force(true);
+        }
+
+        File tempIndex = new File(directory, INDEX_TEMP_FILE);
+        long indexLength = HEADER_SIZE + (long) capacity * SLOT_SIZE;
+        tempIndex.delete();
+        MappedByteBuffer nextIndex = map(tempIndex, indexLength);
+        nextIndex.putInt(HEADER_MAGIC, INDEX_MAGIC);
+        nextIndex.putInt(HEADER_VERSION, INDEX_VERSION);
+        nextIndex.putLong(HEADER_GENERATION, nextGeneration);
+        nextIndex.putLong(HEADER_CLOCK, clock);
+        // writeSlot fills whatever index is current, so keep the old mapping to fall back to.
+        MappedByteBuffer previousIndex = index;
+        int previousLiveEntries = liveEntries;
+        int previousUsedSlots = usedSlots;
+        index = nextIndex;
+        liveEntries = 0;
+        usedSlots = 0;
+        for (long[] entry : kept) {
+            writeSlot(entry[0], entry[1], (int) entry[2], entry[3], entry[4]);
+        }
+        nextIndex.force();
+        if (!tempIndex.renameTo(new File(directory, INDEX_FILE))) {
+            // The old index and data file are untouched; keep serving them.
+            index = previousIndex;
+            liveEntries = previousLiveEntries;
+            usedSlots = previousUsedSlots;
+            tempIndex.delete();
+            nextDataFile.delete();
+            throw new IOException("Cannot swap disk image cache index");
+        }
+
+        closeData();
+        File previous = dataFile(generation);
+        generation = nextGeneration;
+        dataFile = new RandomAccessFile(nextDataFile, "rw");
+        data = dataFile.getChannel();
+        previous.delete();
+    }
+
+    // MARK: - Files
+
+    private File dataFile(long gen) {
+        return new File(directory, DATA_FILE_PREFIX + gen);
+    }
+
+    private void deleteStaleDataFiles() {
+        String current = DATA_FILE_PREFIX + generation;
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            String name = file.getName();
+            if ((name.startsWith(DATA_FILE_PREFIX) && !name.equals(current)) || name.equals(INDEX_TEMP_FILE)) {
+                file.delete();
+            }
+        }
+    }
+
+    private void deleteContents() {
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private void closeData() {
+        try {
+            if (dataFile != null) dataFile.close();
+        } catch (IOException ignored) {}
+        dataFile = null;
+        data = null;
+    }
+
+    private void closeFiles() {
+        if (index != null) index.force();
+        closeData();
+    }
+
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            long hash = ByteBuffer.wrap(digest).getLong();
+            return hash == EMPTY || hash == TOMBSTONE ? 1L : hash;
+        } catch (NoSuchAlgorithmException e) {
+            long hash = key.hashCode() * 0x9E3779B97F4A7C15L;
+            return hash == EMPTY || hash == TOMBSTONE ? 1L : hash;
+        }
+    }
+
+    /** A cached response body plus what is needed to revalidate it. */
+    static final class Entry {
+
+        final byte[] payload;
+        final String etag;
+        final String lastModified;
+        final long expiresAt;
+
+        Entry(byte[] payload, String etag, String lastModified, long expiresAt) {
+            this.payload = payload;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isFresh(long now) {
+            return now < expiresAt;
+        }
+
+        boolean canRevalidate() {
+            return etag != null || lastModified != null;
+        }
+    }
+}
@@ -7,27 +7,67 @@ import android.content.res.ColorStateList;
 import android.text.InputType;
 import android.util.TypedValue;
 import android.view.ContextThemeWrapper;
+import android.view.ViewGroup;
 import android.view.WindowManager;
 import android.widget.Button;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 import androidx.appcompat.app.AlertDialog;
 import androidx.core.widget.TextViewCompat;
+import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
-import com.google.android.material.color.MaterialColors;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ExtendedDialog {
 
+    /**
+     * Runs sheet logo fetching and decoding on the host app's executor instead of the
+     * plugin's built-in pool. The plugin still caps concurrent loads and orders them by
+     * priority. Pass {@code null} to restore the default pool.
+     */
+    public static void setImageExecutor(Executor executor) {
+        ImageLoader.setExecutor(executor);
+    }
+
+    /**
+     * Rejects raster logos whose source exceeds {@code pixels} (width x height) before
+     * decoding. Defaults to 4096 x 4096; pass 0 to restore the default.
+     */
+    public static void setMaxImageSourcePixels(long pixels) {
+        BitmapDecoder.setMaxSourcePixels(pixels);
+    }
+
+    /**
+     * Bounds remote logo downloads: time to connect, time between reads, and the whole
+     * download. Values of 0 or less restore the defaults (10s, 10s and 30s).
+     */
+    public static void setImageFetchTimeouts(int connectTimeoutMs, int readTimeoutMs, int callTimeoutMs) {
+        HttpImageFetcher.setTimeouts(connectTimeoutMs, readTimeoutMs, callTimeoutMs);
+    }
+
+    /** Aborts remote logo downloads larger than {@code bytes}. Defaults to 8 MB; pass 0 to restore it. */
+    public static void setMaxImageBytes(long bytes) {
+        HttpImageFetcher.setMaxBytes(bytes);
+    }
+
+    /**
+     * SVG logos are recorded once and replayed as vector drawings at any size (default).
+     * Disable to render them into per-size bitmaps instead.
+     */
+    public static void setSvgPictureRenderingEnabled(boolean enabled) {
+        SvgImageLoader.setPictureRenderingEnabled(enabled);
+    }
+
     /**
      * Wraps the given context with a Material3 theme overlay.
      * This ensures MaterialAlertDialogBuilder works regardless of the app's base theme.
@@ -105,7 +145,7 @@ public class ExtendedDialog {
      * Buttons use colorPrimary (#6750A4 baseline)
      */
     private void applyM3Typography(AlertDialog dialog) {
-        Context ctx = dialog.getContext();
+        ThemeTokens tokens = ThemeTokens.of(dialog.getContext());
 
         // Apply M3 HeadlineSmall to title with onSurface color
         // MaterialAlertDialogBuilder uses appcompat's alertTitle, not android's
@@ -113,9 +153,7 @@ public class ExtendedDialog {
         if (titleView != null) {
             TextViewCompat.setTextAppearance(titleView, com.google.android.material.R.style.TextAppearance_Material3_HeadlineSmall);
             // M3 dialog headline color: onSurface (#1D1B20)
-            // Use MaterialColors for proper theme attribute resolution across different R class configurations
-            int onSurfaceColor = MaterialColors.getColor(ctx, android.R.attr.textColorPrimary, 0xFF1D1B20);
-            titleView.setTextColor(onSurfaceColor);
+            titleView.setTextColor(tokens.onSurface);
         }
 
         // Apply M3 BodyMedium to message with onSurfaceVariant color
@@ -123,15 +161,12 @@ public class ExtendedDialog {
         if (messageView != null) {
             TextViewCompat.setTextAppearance(messageView, com.google.android.material.R.style.TextAppearance_Material3_BodyMedium);
             // M3 dialog supporting text color: onSurfaceVariant (#49454F)
-            // Use MaterialColors for proper theme attribute resolution
-            int onSurfaceVariantColor = MaterialColors.getColor(ctx, android.R.attr.textColorSecondary, 0xFF49454F);
-            messageView.setTextColor(onSurfaceVariantColor);
+            messageView.setTextColor(tokens.onSurfaceVariant);
         }
 
         // Apply M3 colorPrimary to dialog buttons
         // This ensures consistent button colors across all dialogs regardless of app theme
-        // Use MaterialColors.getColor with android.R.attr.colorPrimary for better compatibility
-        int primaryColor = MaterialColors.getColor(ctx, android.R.attr.colorPrimary, 0xFF6750A4);
+        int primaryColor = tokens.primary;
         Button positiveButton = dialog.getButton(DialogInterface.BUTTON_POSITIVE);
         if (positiveButton != null) {
             positiveButton.setTextColor(ColorStateList.valueOf(primaryColor));
@@ -170,6 +205,21 @@ public class ExtendedDialog {
         void onResult(boolean confirmed);
     }
 
+    public interface SheetPresentedCallback {
+        /** Runs on the UI thread once the sheet is added and can be found by {@code updateSheet}. */
+        void onPresented();
+    }
+
+    public interface UpdateSheetCallback {
+        /** {@code updated} is false when no sheet with the id is open. */
+        void onResult(boolean updated);
+    }
+
+    public interface PreloadImagesCallback {
+        /** {@code errors[i]} is null when {@code urls[i]} is resident at every requested size. */
+        void onResult(String[] urls, String[] errors);
+    }
+
     public void showAlert(
         Activity activity,
         String title,
@@ -222,6 +272,11 @@ public class ExtendedDialog {
         DialogStyleOptions styleOptions,
         AlertCallback callback
     ) {
+        // Measure a long message here on the bridge thread, so the main thread only lays it out
+        TextView styledMessage = new TextView(getThemedContext(activity));
+        FullScreenDialogFragment.styleMessageView(styledMessage, styleOptions);
+        PrecomputedTextCache.precompute(styledMessage, message);
+
         activity.runOnUiThread(() -> {
             FullScreenDialogFragment fragment = FullScreenDialogFragment.newInstance(
                 FullScreenDialogFragment.DialogType.ALERT,
@@ -233,6 +288,7 @@ public class ExtendedDialog {
                 null,
                 null,
                 false,
+                false,
                 styleOptions
             );
             fragment.setAlertCallback(callback);
@@ -309,6 +365,7 @@ public class ExtendedDialog {
                 null,
                 null,
                 false,
+                false,
                 styleOptions
             );
             fragment.setConfirmCallback(callback);
@@ -447,6 +504,7 @@ public class ExtendedDialog {
                 inputText,
                 null,
                 focusInput,
+                false,
                 styleOptions
             );
             fragment.setPromptCallback(callback);
@@ -458,10 +516,12 @@ public class ExtendedDialog {
         Activity activity,
         String title,
         String message,
-        JSONArray options,
+        OptionList options,
         String selectedValue,
         String okButtonTitle,
         String cancelButtonTitle,
+        boolean searchable,
+        String searchPlaceholder,
         boolean fullscreen,
         DialogStyleOptions styleOptions,
         SingleSelectCallback callback
@@ -475,6 +535,8 @@ public class ExtendedDialog {
                 selectedValue,
                 okButtonTitle,
                 cancelButtonTitle,
+                searchable,
+                searchPlaceholder,
                 styleOptions,
                 callback
             );
@@ -487,6 +549,8 @@ public class ExtendedDialog {
                 selectedValue,
                 okButtonTitle,
                 cancelButtonTitle,
+                searchable,
+                searchPlaceholder,
                 styleOptions,
                 callback
             );
@@ -497,69 +561,69 @@ public class ExtendedDialog {
         Activity activity,
         String title,
         String message,
-        JSONArray options,
+        OptionList options,
         String selectedValue,
         String okButtonTitle,
         String cancelButtonTitle,
+        boolean searchable,
+        String searchPlaceholder,
         DialogStyleOptions styleOptions,
         SingleSelectCallback callback
     ) {
+        if (searchable) {
+            showBasicSearchableSelect(
+                activity,
+                title,
+                options,
+                OptionSelection.single(options, selectedValue),
+                okButtonTitle,
+                cancelButtonTitle,
+                searchPlaceholder,
+                styleOptions,
+                (selection, cancelled) -> callback.onResult(cancelled ? null : selection.selectedValue(), cancelled)
+            );
+            return;
+        }
+        String[] labels = options.labels();
+        int checkedItem = options.indexOf(selectedValue);
+
         activity.runOnUiThread(() -> {
-            try {
-                List<String> labels = new ArrayList<>();
-                List<String> values = new ArrayList<>();
-                int checkedItem = -1;
-
-                for (int i = 0; i < options.length(); i++) {
-                    JSONObject option = options.getJSONObject(i);
-                    String label = option.getString("label");
-                    String value = option.getString("value");
-                    labels.add(label);
-                    values.add(value);
-                    if (selectedValue != null && selectedValue.equals(value)) {
-                        checkedItem = i;
-                    }
-                }
+            final int[] selectedIndex = { checkedItem };
 
-                final int[] selectedIndex = { checkedItem };
+            MaterialAlertDialogBuilder builder = new MaterialAlertDialogBuilder(
+                getThemedContext(activity),
+                R.style.ThemeOverlay_ExtendedDialog_MaterialAlertDialog
+            );
 
-                MaterialAlertDialogBuilder builder = new MaterialAlertDialogBuilder(
-                    getThemedContext(activity),
-                    R.style.ThemeOverlay_ExtendedDialog_MaterialAlertDialog
-                );
+            if (title != null && !title.isEmpty()) {
+                builder.setTitle(title);
+            }
 
-                if (title != null && !title.isEmpty()) {
-                    builder.setTitle(title);
+            builder.setSingleChoiceItems(labels, checkedItem, (dialog, which) -> {
+                selectedIndex[0] = which;
+                // M3 guideline: Enable confirming action when a choice is made
+                ((AlertDialog) dialog).getButton(DialogInterface.BUTTON_POSITIVE).setEnabled(true);
+            });
+
+            builder.setPositiveButton(okButtonTitle != null ? okButtonTitle : "OK", (dialog, which) -> {
+                if (selectedIndex[0] >= 0 && selectedIndex[0] < options.size()) {
+                    callback.onResult(options.value(selectedIndex[0]), false);
+                } else {
+                    callback.onResult(null, false);
                 }
+            });
+            builder.setNegativeButton(cancelButtonTitle != null ? cancelButtonTitle : "Cancel", (dialog, which) ->
+                callback.onResult(null, true)
+            );
+            builder.setOnCancelListener((dialog) -> callback.onResult(null, true));
 
-                builder.setSingleChoiceItems(labels.toArray(new String[0]), checkedItem, (dialog, which) -> {
-                    selectedIndex[0] = which;
-                    // M3 guideline: Enable confirming action when a choice is made
-                    ((AlertDialog) dialog).getButton(DialogInterface.BUTTON_POSITIVE).setEnabled(true);
-                });
+            AlertDialog dialog = builder.create();
+            dialog.show();
+            applyDialogStyles(dialog, styleOptions);
 
-                builder.setPositiveButton(okButtonTitle != null ? okButtonTitle : "OK", (dialog, which) -> {
-                    if (selectedIndex[0] >= 0 && selectedIndex[0] < values.size()) {
-                        callback.onResult(values.get(selectedIndex[0]), false);
-                    } else {
-                        callback.onResult(null, false);
-                    }
-                });
-                builder.setNegativeButton(cancelButtonTitle != null ? cancelButtonTitle : "Cancel", (dialog, which) ->
-                    callback.onResult(null, true)
-                );
-                builder.setOnCancelListener((dialog) -> callback.onResult(null, true));
-
-                AlertDialog dialog = builder.create();
-                dialog.show();
-                applyDialogStyles(dialog, styleOptions);
-
-                // M3 guideline: Disable confirming action until a choice is made
-                if (checkedItem < 0) {
-                    dialog.getButton(DialogInterface.BUTTON_POSITIVE).setEnabled(false);
-                }
-            } catch (JSONException e) {
-                callback.onResult(null, true);
+            // M3 guideline: Disable confirming action until a choice is made
+            if (checkedItem < 0) {
+                dialog.getButton(DialogInterface.BUTTON_POSITIVE).setEnabled(false);
             }
         });
     }
@@ -568,24 +632,29 @@ public class ExtendedDialog {
         FragmentActivity activity,
         String title,
         String message,
-        JSONArray options,
+        OptionList options,
         String selectedValue,
         String okButtonTitle,
         String cancelButtonTitle,
+        boolean searchable,
+        String searchPlaceholder,
         DialogStyleOptions styleOptions,
         SingleSelectCallback callback
     ) {
+        OptionSelection selection = OptionSelection.single(options, selectedValue);
         activity.runOnUiThread(() -> {
+            String sessionId = DialogPayloadStore.of(activity).put(new DialogPayloadStore.Selection(options, selection));
             FullScreenDialogFragment fragment = FullScreenDialogFragment.newInstance(
                 FullScreenDialogFragment.DialogType.SINGLE_SELECT,
                 title,
                 message,
                 okButtonTitle != null ? okButtonTitle : "OK",
                 cancelButtonTitle != null ? cancelButtonTitle : "Cancel",
+                searchPlaceholder,
                 null,
-                selectedValue,
-                options.toString(),
+                sessionId,
                 false,
+                searchable,
                 styleOptions
             );
             fragment.setSingleSelectCallback(callback);
@@ -597,10 +666,12 @@ public class ExtendedDialog {
         Activity activity,
         String title,
         String message,
-        JSONArray options,
-        JSONArray selectedValues,
+        OptionList options,
+        List<String> selectedValues,
         String okButtonTitle,
         String cancelButtonTitle,
+        boolean searchable,
+        String searchPlaceholder,
         boolean fullscreen,
         DialogStyleOptions styleOptions,
         MultiSelectCallback callback
@@ -614,6 +685,8 @@ public class ExtendedDialog {
                 selectedValues,
                 okButtonTitle,
                 cancelButtonTitle,
+                searchable,
+                searchPlaceholder,
                 styleOptions,
                 callback
             );
@@ -626,6 +699,8 @@ public class ExtendedDialog {
                 selectedValues,
                 okButtonTitle,
                 cancelButtonTitle,
+                searchable,
+                searchPlaceholder,
                 styleOptions,
                 callback
             );
@@ -636,75 +711,73 @@ public class ExtendedDialog {
         Activity activity,
         String title,
         String message,
-        JSONArray options,
-        JSONArray selectedValues,
+        OptionList options,
+        List<String> selectedValues,
         String okButtonTitle,
         String cancelButtonTitle,
+        boolean searchable,
+        String searchPlaceholder,
         DialogStyleOptions styleOptions,
         MultiSelectCallback callback
     ) {
-        activity.runOnUiThread(() -> {
-            try {
-                List<String> labels = new ArrayList<>();
-                List<String> values = new ArrayList<>();
-                Set<String> selectedSet = new HashSet<>();
-
-                if (selectedValues != null) {
-                    for (int i = 0; i < selectedValues.length(); i++) {
-                        selectedSet.add(selectedValues.getString(i));
-                    }
-                }
-
-                for (int i = 0; i < options.length(); i++) {
-                    JSONObject option = options.getJSONObject(i);
-                    labels.add(option.getString("label"));
-                    values.add(option.getString("value"));
-                }
+        if (searchable) {
+            showBasicSearchableSelect(
+                activity,
+                title,
+                options,
+                OptionSelection.multiple(options, selectedValues != null ? selectedValues : Collections.emptyList()),
+                okButtonTitle,
+                cancelButtonTitle,
+                searchPlaceholder,
+                styleOptions,
+                (selection, cancelled) -> callback.onResult(cancelled ? new String[0] : selection.selectedValues(), cancelled)
+            );
+            return;
+        }
+        Set<String> selectedSet = selectedValues != null ? new HashSet<>(selectedValues) : new HashSet<>();
+        String[] labels = options.labels();
+        boolean[] checkedItems = new boolean[options.size()];
+        for (int i = 0; i < options.size(); i++) {
+            checkedItems[i] = selectedSet.contains(options.value(i));
+        }
 
-                boolean[] checkedItems = new boolean[values.size()];
-                for (int i = 0; i < values.size(); i++) {
-                    checkedItems[i] = selectedSet.contains(values.get(i));
-                }
+        activity.runOnUiThread(() -> {
+            final Set<String> resultSet = new HashSet<>(selectedSet);
 
-                final Set<String> resultSet = new HashSet<>(selectedSet);
+            MaterialAlertDialogBuilder builder = new MaterialAlertDialogBuilder(
+                getThemedContext(activity),
+                R.style.ThemeOverlay_ExtendedDialog_MaterialAlertDialog
+            );
 
-                MaterialAlertDialogBuilder builder = new MaterialAlertDialogBuilder(
-                    getThemedContext(activity),
-                    R.style.ThemeOverlay_ExtendedDialog_MaterialAlertDialog
-                );
+            if (title != null && !title.isEmpty()) {
+                builder.setTitle(title);
+            }
 
-                if (title != null && !title.isEmpty()) {
-                    builder.setTitle(title);
+            builder.setMultiChoiceItems(labels, checkedItems, (dialog, which, isChecked) -> {
+                if (isChecked) {
+                    resultSet.add(options.value(which));
+                } else {
+                    resultSet.remove(options.value(which));
                 }
+                // M3 guideline: Enable confirming action when a choice is made
+                ((AlertDialog) dialog).getButton(DialogInterface.BUTTON_POSITIVE).setEnabled(!resultSet.isEmpty());
+            });
 
-                builder.setMultiChoiceItems(labels.toArray(new String[0]), checkedItems, (dialog, which, isChecked) -> {
-                    if (isChecked) {
-                        resultSet.add(values.get(which));
-                    } else {
-                        resultSet.remove(values.get(which));
-                    }
-                    // M3 guideline: Enable confirming action when a choice is made
-                    ((AlertDialog) dialog).getButton(DialogInterface.BUTTON_POSITIVE).setEnabled(!resultSet.isEmpty());
-                });
+            builder.setPositiveButton(okButtonTitle != null ? okButtonTitle : "OK", (dialog, which) ->
+                callback.onResult(resultSet.toArray(new String[0]), false)
+            );
+            builder.setNegativeButton(cancelButtonTitle != null ? cancelButtonTitle : "Cancel", (dialog, which) ->
+                callback.onResult(new String[0], true)
+            );
+            builder.setOnCancelListener((dialog) -> callback.onResult(new String[0], true));
 
-                builder.setPositiveButton(okButtonTitle != null ? okButtonTitle : "OK", (dialog, which) ->
-                    callback.onResult(resultSet.toArray(new String[0]), false)
-                );
-                builder.setNegativeButton(cancelButtonTitle != null ? cancelButtonTitle : "Cancel", (dialog, which) ->
-                    callback.onResult(new String[0], true)
-                );
-                builder.setOnCancelListener((dialog) -> callback.onResult(new String[0], true));
-
-                AlertDialog dialog = builder.create();
-                dialog.show();
-                applyDialogStyles(dialog, styleOptions);
-
-                // M3 guideline: Disable confirming action until a choice is made
-                if (resultSet.isEmpty()) {
-                    dialog.getButton(DialogInterface.BUTTON_POSITIVE).setEnabled(false);
-                }
-            } catch (JSONException e) {
-                callback.onResult(new String[0], true);
+            AlertDialog dialog = builder.create();
+            dialog.show();
+            applyDialogStyles(dialog, styleOptions);
+
+            // M3 guideline: Disable confirming action until a choice is made
+            if (resultSet.isEmpty()) {
+                dialog.getButton(DialogInterface.BUTTON_POSITIVE).setEnabled(false);
             }
         });
     }
@@ -713,25 +786,29 @@ public class ExtendedDialog {
         FragmentActivity activity,
         String title,
         String message,
-        JSONArray options,
-        JSONArray selectedValues,
+        OptionList options,
+        List<String> selectedValues,
         String okButtonTitle,
         String cancelButtonTitle,
+        boolean searchable,
+        String searchPlaceholder,
         DialogStyleOptions styleOptions,
         MultiSelectCallback callback
     ) {
+        OptionSelection selection = OptionSelection.multiple(options, selectedValues != null ? selectedValues : Collections.emptyList());
         activity.runOnUiThread(() -> {
-            String selectedValuesStr = selectedValues != null ? selectedValues.toString() : null;
+            String sessionId = DialogPayloadStore.of(activity).put(new DialogPayloadStore.Selection(options, selection));
             FullScreenDialogFragment fragment = FullScreenDialogFragment.newInstance(
                 FullScreenDialogFragment.DialogType.MULTI_SELECT,
                 title,
                 message,
                 okButtonTitle != null ? okButtonTitle : "OK",
                 cancelButtonTitle != null ? cancelButtonTitle : "Cancel",
+                searchPlaceholder,
                 null,
-                selectedValuesStr,
-                options.toString(),
+                sessionId,
                 false,
+                searchable,
                 styleOptions
             );
             fragment.setMultiSelectCallback(callback);
@@ -739,18 +816,135 @@ public class ExtendedDialog {
         });
     }
 
+    private interface SelectionCallback {
+        void onResult(OptionSelection selection, boolean cancelled);
+    }
+
+    /**
+     * Basic select dialog with a search field above a recycled option list. The platform
+     * choice list can't be filtered, so searchable dialogs use the same adapter as fullscreen.
+     */
+    private void showBasicSearchableSelect(
+        Activity activity,
+        String title,
+        OptionList options,
+        OptionSelection selection,
+        String okButtonTitle,
+        String cancelButtonTitle,
+        String searchPlaceholder,
+        DialogStyleOptions styleOptions,
+        SelectionCallback callback
+    ) {
+        activity.runOnUiThread(() -> {
+            Context themedContext = getThemedContext(activity);
+            float density = activity.getResources().getDisplayMetrics().density;
+            final AlertDialog[] dialogRef = new AlertDialog[1];
+
+            OptionListAdapter adapter = new OptionListAdapter(options, selection, null, styleOptions, 0, density, () -> {
+                // M3 guideline: Enable confirming action when a choice is made
+                if (dialogRef[0] != null) {
+                    dialogRef[0].getButton(DialogInterface.BUTTON_POSITIVE).setEnabled(!selection.isEmpty());
+                }
+            });
+            OptionSearch search = new OptionSearch(options, adapter, activity.getResources().getConfiguration().getLocales().get(0));
+
+            RecyclerView list = new RecyclerView(themedContext);
+            // Fixed height so the dialog doesn't resize on every keystroke
+            int listHeight = (int) (activity.getResources().getDisplayMetrics().heightPixels * 0.5f);
+            list.setLayoutParams(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, listHeight));
+            list.setLayoutManager(new LinearLayoutManager(themedContext));
+            list.setHasFixedSize(true);
+            list.setAdapter(adapter);
+
+            LinearLayout container = new LinearLayout(themedContext);
+            container.setOrientation(LinearLayout.VERTICAL);
+            int padding = (int) (20 * density);
+            container.setPadding(padding, padding / 2, padding, 0);
+            container.addView(OptionSearch.createField(themedContext, searchPlaceholder, search));
+            container.addView(list);
+
+            MaterialAlertDialogBuilder builder = new MaterialAlertDialogBuilder(
+                themedContext,
+                R.style.ThemeOverlay_ExtendedDialog_MaterialAlertDialog
+            );
+            if (title != null && !title.isEmpty()) {
+                builder.setTitle(title);
+            }
+            builder.setView(container);
+            builder.setPositiveButton(okButtonTitle != null ? okButtonTitle : "OK", (dialog, which) -> callback.onResult(selection, false));
+            builder.setNegativeButton(cancelButtonTitle != null ? cancelButtonTitle : "Cancel", (dialog, which) ->
+                callback.onResult(selection, true)
+            );
+            builder.setOnCancelListener((dialog) -> callback.onResult(selection, true));
+            builder.setOnDismissListener((dialog) -> search.close());
+
+            AlertDialog dialog = builder.create();
+            dialogRef[0] = dialog;
+            dialog.getWindow().setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_ADJUST_RESIZE);
+            dialog.show();
+            applyDialogStyles(dialog, styleOptions);
+
+            // M3 guideline: Disable confirming action until a choice is made
+            if (selection.isEmpty()) {
+                dialog.getButton(DialogInterface.BUTTON_POSITIVE).setEnabled(false);
+            }
+        });
+    }
+
+    // MARK: - Image preloading
+
+    /** Logo sizes the sheets display: row logos, basic header and fullscreen header. */
+    static final int[] DEFAULT_PRELOAD_SIZES_DP = { 24, 48, 64 };
+
+    /**
+     * Warms the memory and disk caches for {@code urls} at each of {@code sizesDp} using the
+     * same fetch and decode pipeline as the sheets, so a later sheet binds its logos synchronously.
+     */
+    public void preloadImages(Context context, List<String> urls, int[] sizesDp, PreloadImagesCallback callback) {
+        String[] sources = urls.toArray(new String[0]);
+        String[] errors = new String[sources.length];
+        int[] sizes = sizesDp != null && sizesDp.length > 0 ? sizesDp : DEFAULT_PRELOAD_SIZES_DP;
+        if (sources.length == 0) {
+            callback.onResult(sources, errors);
+            return;
+        }
+        float density = context.getResources().getDisplayMetrics().density;
+        AtomicInteger remaining = new AtomicInteger(sources.length * sizes.length);
+        for (int i = 0; i < sources.length; i++) {
+            int index = i;
+            for (int sizeDp : sizes) {
+                // Same truncation as the sheet layouts, so the cache keys match.
+                int size = (int) (sizeDp * density);
+                ImageLoader.preload(sources[i], size, size, (error) -> {
+                    if (error != null) {
+                        synchronized (errors) {
+                            if (errors[index] == null) errors[index] = error;
+                        }
+                    }
+                    if (remaining.decrementAndGet() == 0) {
+                        synchronized (errors) {
+                            callback.onResult(sources, errors);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
     // MARK: - Sheet
 
     public void showSheet(
         Activity activity,
+        String sheetId,
         String title,
         String subtitle,
         String headerLogo,
-        JSONArray rows,
+        List<SheetRow> rows,
         String confirmButtonTitle,
         String cancelButtonTitle,
         boolean fullscreen,
         DialogStyleOptions styleOptions,
+        SheetPresentedCallback presentedCallback,
         SheetCallback callback
     ) {
         if (!(activity instanceof FragmentActivity)) {
@@ -758,22 +952,67 @@ public class ExtendedDialog {
             return;
         }
         FragmentActivity fragmentActivity = (FragmentActivity) activity;
+        // Start the logos on the bridge thread; the UI thread only binds
+        prefetchSheetLogos(activity, headerLogo, rows, fullscreen);
+
         fragmentActivity.runOnUiThread(() -> {
+            String sessionId = DialogPayloadStore.of(fragmentActivity).put(new DialogPayloadStore.Rows(rows));
             SheetBottomDialogFragment fragment = SheetBottomDialogFragment.newInstance(
                 title,
                 subtitle,
                 headerLogo,
-                rows.toString(),
+                sessionId,
                 confirmButtonTitle != null ? confirmButtonTitle : "Confirm",
                 cancelButtonTitle != null ? cancelButtonTitle : "Cancel",
                 fullscreen,
                 styleOptions
             );
             fragment.setSheetCallback(callback);
-            fragment.show(fragmentActivity.getSupportFragmentManager(), "bottom_sheet");
+            // A sheet still open under the same id is replaced, resolving as cancelled
+            SheetBottomDialogFragment previous = findSheet(fragmentActivity, sheetId);
+            if (previous != null) {
+                previous.cancel();
+            }
+            // Added synchronously so an updateSheet() sent in reply to the event finds it
+            fragment.showNow(fragmentActivity.getSupportFragmentManager(), sheetTag(sheetId));
+            presentedCallback.onPresented();
+        });
+    }
+
+    /**
+     * Applies new rows, title or subtitle (null leaves each as it is) to the sheet opened
+     * under {@code sheetId}. Only the rows that changed are rebound and animated.
+     */
+    public void updateSheet(Activity activity, String sheetId, List<SheetRow> rows, String title, String subtitle, UpdateSheetCallback callback) {
+        if (!(activity instanceof FragmentActivity)) {
+            callback.onResult(false);
+            return;
+        }
+        FragmentActivity fragmentActivity = (FragmentActivity) activity;
+        if (rows != null) {
+            prefetchSheetLogos(activity, null, rows, false);
+        }
+        fragmentActivity.runOnUiThread(() -> {
+            SheetBottomDialogFragment fragment = findSheet(fragmentActivity, sheetId);
+            if (fragment == null) {
+                callback.onResult(false);
+                return;
+            }
+            fragment.update(rows, title, subtitle);
+            callback.onResult(true);
         });
     }
 
+    private static String sheetTag(String sheetId) {
+        return "sheet:" + sheetId;
+    }
+
+    private static SheetBottomDialogFragment findSheet(FragmentActivity activity, String sheetId) {
+        Fragment fragment = activity.getSupportFragmentManager().findFragmentByTag(sheetTag(sheetId));
+        if (!(fragment instanceof SheetBottomDialogFragment) || fragment.isRemoving()) return null;
+        return (SheetBottomDialogFragment) fragment;
+    }
+
     public void showMessageSheet(
         Activity activity,
         String title,
@@ -791,6 +1030,14 @@ public class ExtendedDialog {
             return;
         }
         FragmentActivity fragmentActivity = (FragmentActivity) activity;
+        prefetchSheetLogos(activity, headerLogo, Collections.emptyList(), fullscreen);
+        // Chunks are short enough to measure as they scroll into view
+        if (!MessageChunker.shouldChunk(message)) {
+            TextView styledMessage = new TextView(getThemedContext(fragmentActivity));
+            SheetBottomDialogFragment.styleMessageView(styledMessage, styleOptions);
+            PrecomputedTextCache.precompute(styledMessage, message);
+        }
+
         fragmentActivity.runOnUiThread(() -> {
             SheetBottomDialogFragment fragment = SheetBottomDialogFragment.newMessageInstance(
                 title,
@@ -806,4 +1053,25 @@ public class ExtendedDialog {
             fragment.show(fragmentActivity.getSupportFragmentManager(), "message_sheet");
         });
     }
+
+    /**
+     * Starts the header logo and the first screenful of row logos at the pixel sizes the
+     * sheet binds them, so the views hit the memory cache or join loads already running.
+     */
+    private static void prefetchSheetLogos(Context context, String headerLogo, List<SheetRow> rows, boolean fullscreen) {
+        float density = context.getResources().getDisplayMetrics().density;
+        if (headerLogo != null && !headerLogo.isEmpty()) {
+            int size = (int) ((fullscreen ? 64 : 48) * density);
+            ImageLoader.prefetch(headerLogo, size, size, ImageLoader.PRIORITY_HEADER);
+        }
+        // A row is at least its 24dp logo plus 8dp padding above and below
+        int visibleRows = (int) (context.getResources().getDisplayMetrics().heightPixels / (40 * density)) + 1;
+        int logoSize = (int) (24 * density);
+        for (int i = 0; i < rows.size() && i < visibleRows; i++) {
+            String logo = rows.get(i).logo;
+            if (logo != null) {
+                ImageLoader.prefetch(logo, logoSize, logoSize, ImageLoader.PRIORITY_ROW + i);
+            }
+        }
+    }
 }
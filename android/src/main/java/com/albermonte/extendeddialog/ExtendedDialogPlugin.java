@@ -6,14 +6,42 @@ import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
-import org.json.JSONArray;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 @CapacitorPlugin(name = "ExtendedDialog")
 public class ExtendedDialogPlugin extends Plugin {
 
+    /** Malformed entries named in a rejection; the rest are only counted. */
+    private static final int MAX_REPORTED_ERRORS = 5;
+    /** Prefix of generated sheet ids; callers may not choose ids starting with it. */
+    private static final String GENERATED_SHEET_ID_PREFIX = "sheet-";
+
     private final ExtendedDialog implementation = new ExtendedDialog();
+    private MemoryTrimmer memoryTrimmer;
+    private OptionSetRegistry optionSets;
+    private int nextSheetId;
+
+    @Override
+    public void load() {
+        super.load();
+        DiskImageCache.install(getContext().getCacheDir());
+        optionSets = new OptionSetRegistry(getContext().getFilesDir());
+        memoryTrimmer = new MemoryTrimmer(getContext());
+        getContext().getApplicationContext().registerComponentCallbacks(memoryTrimmer);
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        if (memoryTrimmer != null) {
+            getContext().getApplicationContext().unregisterComponentCallbacks(memoryTrimmer);
+            memoryTrimmer = null;
+        }
+        super.handleOnDestroy();
+    }
 
     private DialogStyleOptions extractStyleOptions(PluginCall call) {
         DialogStyleOptions styleOptions = new DialogStyleOptions();
@@ -111,12 +139,13 @@ public class ExtendedDialogPlugin extends Plugin {
     public void singleSelect(PluginCall call) {
         String title = call.getString("title");
         String message = call.getString("message");
-        JSArray optionsArray = call.getArray("options");
         String selectedValue = call.getString("selectedValue");
         String okButtonTitle = call.getString("okButtonTitle");
         String cancelButtonTitle = call.getString("cancelButtonTitle");
         String mode = call.getString("mode", "basic");
         boolean fullscreen = "fullscreen".equals(mode);
+        boolean searchable = call.getBoolean("searchable", false);
+        String searchPlaceholder = call.getString("searchPlaceholder");
         DialogStyleOptions styleOptions = extractStyleOptions(call);
 
         if (message == null) {
@@ -124,46 +153,43 @@ public class ExtendedDialogPlugin extends Plugin {
             return;
         }
 
-        if (optionsArray == null) {
-            call.reject("options is required");
+        OptionList options = resolveOptions(call);
+        if (options == null) {
             return;
         }
 
-        try {
-            JSONArray options = new JSONArray(optionsArray.toString());
-
-            implementation.showSingleSelect(
-                getActivity(),
-                title,
-                message,
-                options,
-                selectedValue,
-                okButtonTitle,
-                cancelButtonTitle,
-                fullscreen,
-                styleOptions,
-                (value, cancelled) -> {
-                    JSObject result = new JSObject();
-                    result.put("value", value);
-                    result.put("cancelled", cancelled);
-                    call.resolve(result);
-                }
-            );
-        } catch (JSONException e) {
-            call.reject("Invalid options format");
-        }
+        implementation.showSingleSelect(
+            getActivity(),
+            title,
+            message,
+            options,
+            selectedValue,
+            okButtonTitle,
+            cancelButtonTitle,
+            searchable,
+            searchPlaceholder,
+            fullscreen,
+            styleOptions,
+            (value, cancelled) -> {
+                JSObject result = new JSObject();
+                result.put("value", value);
+                result.put("cancelled", cancelled);
+                call.resolve(result);
+            }
+        );
     }
 
     @PluginMethod
     public void multiSelect(PluginCall call) {
         String title = call.getString("title");
         String message = call.getString("message");
-        JSArray optionsArray = call.getArray("options");
         JSArray selectedValuesArray = call.getArray("selectedValues");
         String okButtonTitle = call.getString("okButtonTitle");
         String cancelButtonTitle = call.getString("cancelButtonTitle");
         String mode = call.getString("mode", "basic");
         boolean fullscreen = "fullscreen".equals(mode);
+        boolean searchable = call.getBoolean("searchable", false);
+        String searchPlaceholder = call.getString("searchPlaceholder");
         DialogStyleOptions styleOptions = extractStyleOptions(call);
 
         if (message == null) {
@@ -171,49 +197,55 @@ public class ExtendedDialogPlugin extends Plugin {
             return;
         }
 
-        if (optionsArray == null) {
-            call.reject("options is required");
+        OptionList options = resolveOptions(call);
+        if (options == null) {
             return;
         }
-
+        List<String> selectedValues = new ArrayList<>();
         try {
-            JSONArray options = new JSONArray(optionsArray.toString());
-            JSONArray selectedValues = selectedValuesArray != null ? new JSONArray(selectedValuesArray.toString()) : null;
-
-            implementation.showMultiSelect(
-                getActivity(),
-                title,
-                message,
-                options,
-                selectedValues,
-                okButtonTitle,
-                cancelButtonTitle,
-                fullscreen,
-                styleOptions,
-                (values, cancelled) -> {
-                    JSObject result = new JSObject();
-                    JSArray valuesResult = new JSArray();
-                    if (values != null) {
-                        for (String value : values) {
-                            valuesResult.put(value);
-                        }
-                    }
-                    result.put("values", valuesResult);
-                    result.put("cancelled", cancelled);
-                    call.resolve(result);
-                }
-            );
+            for (int i = 0; selectedValuesArray != null && i < selectedValuesArray.length(); i++) {
+                selectedValues.add(selectedValuesArray.getString(i));
+            }
         } catch (JSONException e) {
-            call.reject("Invalid options format");
+            call.reject("Invalid selectedValues format");
+            return;
         }
+
+        implementation.showMultiSelect(
+            getActivity(),
+            title,
+            message,
+            options,
+            selectedValues,
+            okButtonTitle,
+            cancelButtonTitle,
+            searchable,
+            searchPlaceholder,
+            fullscreen,
+            styleOptions,
+            (values, cancelled) -> {
+                JSObject result = new JSObject();
+                JSArray valuesResult = new JSArray();
+                if (values != null) {
+                    for (String value : values) {
+                        valuesResult.put(value);
+                    }
+                }
+                result.put("values", valuesResult);
+                result.put("cancelled", cancelled);
+                call.resolve(result);
+            }
+        );
     }
 
     @PluginMethod
     public void sheet(PluginCall call) {
+        String id = call.getString("id");
         String title = call.getString("title");
         String subtitle = call.getString("subtitle");
         String headerLogo = call.getString("headerLogo");
         JSArray rowsArray = call.getArray("rows");
+        String optionSetId = call.getString("optionSetId");
         String confirmButtonTitle = call.getString("confirmButtonTitle");
         String cancelButtonTitle = call.getString("cancelButtonTitle");
         String mode = call.getString("mode", "basic");
@@ -225,33 +257,161 @@ public class ExtendedDialogPlugin extends Plugin {
             return;
         }
 
-        if (rowsArray == null) {
-            call.reject("rows is required");
+        if (id != null && id.startsWith(GENERATED_SHEET_ID_PREFIX)) {
+            call.reject("Sheet ids starting with \"" + GENERATED_SHEET_ID_PREFIX + "\" are reserved");
+            return;
+        }
+
+        List<SheetRow> rows;
+        if (rowsArray != null) {
+            try {
+                rows = SheetRow.fromJson(rowsArray);
+            } catch (JSONException e) {
+                call.reject("Invalid rows format: " + e.getMessage());
+                return;
+            }
+        } else if (optionSetId != null) {
+            OptionList options = optionSets.get(optionSetId);
+            if (options == null) {
+                call.reject("Unknown optionSetId: " + optionSetId);
+                return;
+            }
+            rows = SheetRow.fromOptions(options);
+        } else {
+            call.reject("rows or optionSetId is required");
+            return;
+        }
+
+        // Plugin calls run one at a time on the bridge thread
+        String sheetId = id != null && !id.isEmpty() ? id : GENERATED_SHEET_ID_PREFIX + nextSheetId++;
+        implementation.showSheet(
+            getActivity(),
+            sheetId,
+            title,
+            subtitle,
+            headerLogo,
+            rows,
+            confirmButtonTitle,
+            cancelButtonTitle,
+            fullscreen,
+            styleOptions,
+            () -> {
+                JSObject presented = new JSObject();
+                presented.put("id", sheetId);
+                notifyListeners("sheetPresented", presented);
+            },
+            (confirmed) -> {
+                JSObject result = new JSObject();
+                result.put("id", sheetId);
+                result.put("confirmed", confirmed);
+                call.resolve(result);
+            }
+        );
+    }
+
+    @PluginMethod
+    public void updateSheet(PluginCall call) {
+        String id = call.getString("id");
+        JSArray rowsArray = call.getArray("rows");
+        String title = call.getString("title");
+        String subtitle = call.getString("subtitle");
+
+        if (id == null || id.isEmpty()) {
+            call.reject("id is required");
+            return;
+        }
+
+        List<SheetRow> rows = null;
+        if (rowsArray != null) {
+            try {
+                rows = SheetRow.fromJson(rowsArray);
+            } catch (JSONException e) {
+                call.reject("Invalid rows format: " + e.getMessage());
+                return;
+            }
+        }
+
+        implementation.updateSheet(getActivity(), id, rows, title, subtitle, (updated) -> {
+            if (updated) {
+                call.resolve();
+            } else {
+                call.reject("No open sheet with id: " + id);
+            }
+        });
+    }
+
+    @PluginMethod
+    public void registerOptionSet(PluginCall call) {
+        String id = call.getString("id");
+        JSArray optionsArray = call.getArray("options");
+        boolean persist = call.getBoolean("persist", false);
+
+        if (id == null || id.isEmpty()) {
+            call.reject("id is required");
+            return;
+        }
+
+        if (optionsArray == null) {
+            call.reject("options is required");
+            return;
+        }
+
+        OptionListParser.Result options = OptionListParser.parse(optionsArray);
+        if (options.hasErrors()) {
+            call.reject("Invalid options format: " + options.describeErrors(MAX_REPORTED_ERRORS));
             return;
         }
 
         try {
-            JSONArray rows = new JSONArray(rowsArray.toString());
-
-            implementation.showSheet(
-                getActivity(),
-                title,
-                subtitle,
-                headerLogo,
-                rows,
-                confirmButtonTitle,
-                cancelButtonTitle,
-                fullscreen,
-                styleOptions,
-                (confirmed) -> {
-                    JSObject result = new JSObject();
-                    result.put("confirmed", confirmed);
-                    call.resolve(result);
-                }
-            );
-        } catch (JSONException e) {
-            call.reject("Invalid rows format");
+            optionSets.register(id, options.options, persist);
+        } catch (IOException e) {
+            call.reject("Failed to persist option set: " + e.getMessage());
+            return;
         }
+        JSObject result = new JSObject();
+        result.put("id", id);
+        result.put("count", options.options.size());
+        call.resolve(result);
+    }
+
+    @PluginMethod
+    public void unregisterOptionSet(PluginCall call) {
+        String id = call.getString("id");
+
+        if (id == null || id.isEmpty()) {
+            call.reject("id is required");
+            return;
+        }
+
+        JSObject result = new JSObject();
+        result.put("removed", optionSets.unregister(id));
+        call.resolve(result);
+    }
+
+    /**
+     * The inline {@code options} of a select call, parsed once here on the bridge thread, or
+     * the registered set named by {@code optionSetId}. Rejects the call and returns null if neither works.
+     */
+    private OptionList resolveOptions(PluginCall call) {
+        JSArray optionsArray = call.getArray("options");
+        if (optionsArray != null) {
+            OptionListParser.Result options = OptionListParser.parse(optionsArray);
+            if (options.hasErrors()) {
+                call.reject("Invalid options format: " + options.describeErrors(MAX_REPORTED_ERRORS));
+                return null;
+            }
+            return options.options;
+        }
+        String optionSetId = call.getString("optionSetId");
+        if (optionSetId == null) {
+            call.reject("options or optionSetId is required");
+            return null;
+        }
+        OptionList options = optionSets.get(optionSetId);
+        if (options == null) {
+            call.reject("Unknown optionSetId: " + optionSetId);
+        }
+        return options;
     }
 
     @PluginMethod
@@ -293,4 +453,81 @@ public class ExtendedDialogPlugin extends Plugin {
             }
         );
     }
+
+    @PluginMethod
+    public void preloadImages(PluginCall call) {
+        JSArray urlsArray = call.getArray("urls");
+        JSArray sizesArray = call.getArray("sizes");
+
+        if (urlsArray == null) {
+            call.reject("urls is required");
+            return;
+        }
+
+        try {
+            List<String> urls = new ArrayList<>(urlsArray.length());
+            for (int i = 0; i < urlsArray.length(); i++) {
+                urls.add(urlsArray.getString(i));
+            }
+            int[] sizes = null;
+            if (sizesArray != null) {
+                sizes = new int[sizesArray.length()];
+                for (int i = 0; i < sizes.length; i++) {
+                    sizes[i] = sizesArray.getInt(i);
+                    if (sizes[i] <= 0) {
+                        call.reject("sizes must be positive");
+                        return;
+                    }
+                }
+            }
+
+            implementation.preloadImages(getContext(), urls, sizes, (sources, errors) -> {
+                JSArray results = new JSArray();
+                for (int i = 0; i < sources.length; i++) {
+                    JSObject entry = new JSObject();
+                    entry.put("url", sources[i]);
+                    entry.put("status", errors[i] == null ? "loaded" : "failed");
+                    if (errors[i] != null) {
+                        entry.put("error", errors[i]);
+                    }
+                    results.put(entry);
+                }
+                JSObject result = new JSObject();
+                result.put("results", results);
+                call.resolve(result);
+            });
+        } catch (JSONException e) {
+            call.reject("Invalid preloadImages options");
+        }
+    }
+
+    @PluginMethod
+    public void getCacheStats(PluginCall call) {
+        JSObject result = new JSObject();
+        result.put("lowRamDevice", MemoryTrimmer.isLowRamDevice());
+        result.put("caches", toJSArray(MemoryTrimmer.stats()));
+        MemoryTrimmer.TrimReport lastTrim = MemoryTrimmer.lastTrim();
+        if (lastTrim != null) {
+            JSObject trim = new JSObject();
+            trim.put("level", lastTrim.level);
+            trim.put("timestamp", lastTrim.timestamp);
+            trim.put("freed", toJSArray(lastTrim.freed));
+            result.put("lastTrim", trim);
+        }
+        call.resolve(result);
+    }
+
+    private static JSArray toJSArray(List<MemoryTrimmer.CacheStats> stats) {
+        JSArray array = new JSArray();
+        for (MemoryTrimmer.CacheStats cache : stats) {
+            JSObject entry = new JSObject();
+            entry.put("name", cache.name);
+            entry.put("entries", cache.entries);
+            if (cache.bytes >= 0) {
+                entry.put("bytes", cache.bytes);
+            }
+            array.put(entry);
+        }
+        return array;
+    }
 }
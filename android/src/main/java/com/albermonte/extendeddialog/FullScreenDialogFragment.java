@@ -15,10 +15,7 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.view.Window;
 import android.view.WindowManager;
-import android.widget.CheckBox;
 import android.widget.LinearLayout;
-import android.widget.RadioButton;
-import android.widget.RadioGroup;
 import android.widget.ScrollView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
@@ -28,18 +25,13 @@ import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 import androidx.core.widget.TextViewCompat;
 import androidx.fragment.app.DialogFragment;
+import androidx.fragment.app.FragmentActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
-import com.google.android.material.color.MaterialColors;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 public class FullScreenDialogFragment extends DialogFragment {
 
@@ -58,8 +50,9 @@ public class FullScreenDialogFragment extends DialogFragment {
     private static final String ARG_CANCEL_BUTTON = "cancelButton";
     private static final String ARG_INPUT_PLACEHOLDER = "inputPlaceholder";
     private static final String ARG_INPUT_TEXT = "inputText";
-    private static final String ARG_OPTIONS = "options";
     private static final String ARG_FOCUS_INPUT = "focusInput";
+    private static final String ARG_SEARCHABLE = "searchable";
+    private static final String ARG_SESSION_ID = "sessionId";
 
     private ExtendedDialog.AlertCallback alertCallback;
     private ExtendedDialog.ConfirmCallback confirmCallback;
@@ -69,8 +62,9 @@ public class FullScreenDialogFragment extends DialogFragment {
 
     private TextInputEditText inputField;
     private MaterialButton okBtn;
-    private String selectedValue;
-    private Set<String> selectedValues = new HashSet<>();
+    private OptionList options;
+    private OptionSelection selection;
+    private OptionSearch search;
     private boolean dismissed = false;
     private Context themedContext;
 
@@ -93,8 +87,9 @@ public class FullScreenDialogFragment extends DialogFragment {
         String cancelButton,
         String inputPlaceholder,
         String inputText,
-        String optionsJson,
+        String sessionId,
         boolean focusInput,
+        boolean searchable,
         DialogStyleOptions styleOptions
     ) {
         FullScreenDialogFragment fragment = new FullScreenDialogFragment();
@@ -106,8 +101,9 @@ public class FullScreenDialogFragment extends DialogFragment {
         args.putString(ARG_CANCEL_BUTTON, cancelButton);
         args.putString(ARG_INPUT_PLACEHOLDER, inputPlaceholder);
         args.putString(ARG_INPUT_TEXT, inputText);
-        args.putString(ARG_OPTIONS, optionsJson);
+        args.putString(ARG_SESSION_ID, sessionId);
         args.putBoolean(ARG_FOCUS_INPUT, focusInput);
+        args.putBoolean(ARG_SEARCHABLE, searchable);
         if (styleOptions != null) {
             styleOptions.writeToBundle(args);
         }
@@ -183,21 +179,20 @@ public class FullScreenDialogFragment extends DialogFragment {
         String cancelButton = args.getString(ARG_CANCEL_BUTTON, "Cancel");
         String inputPlaceholder = args.getString(ARG_INPUT_PLACEHOLDER);
         String inputText = args.getString(ARG_INPUT_TEXT);
-        String optionsJson = args.getString(ARG_OPTIONS);
         boolean focusInput = args.getBoolean(ARG_FOCUS_INPUT, false);
+        boolean searchable = args.getBoolean(ARG_SEARCHABLE, false);
         DialogStyleOptions styleOptions = DialogStyleOptions.readFromBundle(args);
 
         // Create root layout
         Context ctx = getThemedContext();
+        ThemeTokens tokens = ThemeTokens.of(ctx);
         LinearLayout root = new LinearLayout(ctx);
         root.setOrientation(LinearLayout.VERTICAL);
         if (styleOptions.getBackgroundColor() != null) {
             root.setBackgroundColor(styleOptions.getBackgroundColor());
         } else {
             // Use Material 3 surface color or fallback to white
-            // Use android.R.attr.colorBackground which maps to surface in M3 themes
-            int surfaceColor = MaterialColors.getColor(ctx, android.R.attr.colorBackground, 0xFFFFFFFF);
-            root.setBackgroundColor(surfaceColor);
+            root.setBackgroundColor(tokens.surface);
         }
 
         // Handle window insets for edge-to-edge display
@@ -219,9 +214,7 @@ public class FullScreenDialogFragment extends DialogFragment {
         toolbar.setNavigationIcon(com.google.android.material.R.drawable.ic_m3_chip_close);
 
         // Tint navigation icon for proper visibility in dark/light themes
-        // Use android.R.attr.textColorPrimary which maps to onSurface in M3 themes
-        int colorOnSurface = MaterialColors.getColor(ctx, android.R.attr.textColorPrimary, 0xFF1D1B20);
-        toolbar.setNavigationIconTint(colorOnSurface);
+        toolbar.setNavigationIconTint(tokens.onSurface);
 
         toolbar.setNavigationOnClickListener((v) -> {
             handleCancel();
@@ -232,61 +225,66 @@ public class FullScreenDialogFragment extends DialogFragment {
 
         float density = getResources().getDisplayMetrics().density;
 
-        // Create scroll view for content
-        ScrollView scrollView = new ScrollView(ctx);
-        scrollView.setLayoutParams(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 0, 1f));
-
-        LinearLayout contentLayout = new LinearLayout(ctx);
-        contentLayout.setOrientation(LinearLayout.VERTICAL);
         int horizontalPadding = (int) (32 * density);
         int verticalPadding = (int) (24 * density);
-        contentLayout.setPadding(horizontalPadding, verticalPadding, horizontalPadding, verticalPadding);
-
-        // Add message
-        if (message != null && !message.isEmpty()) {
-            TextView messageView = new TextView(ctx);
-            messageView.setText(message);
-            if (styleOptions.getMessageFontSize() != null) {
-                messageView.setTextSize(TypedValue.COMPLEX_UNIT_SP, styleOptions.getMessageFontSize());
-            } else {
-                // M3 dialog supporting text: 14sp, weight 400, tracking 0.25sp
-                TextViewCompat.setTextAppearance(messageView, com.google.android.material.R.style.TextAppearance_Material3_BodyMedium);
+
+        if (type == DialogType.SINGLE_SELECT || type == DialogType.MULTI_SELECT) {
+            DialogPayloadStore.Selection payload = DialogPayloadStore.of(requireActivity()).get(
+                args.getString(ARG_SESSION_ID),
+                DialogPayloadStore.Selection.class
+            );
+            if (payload == null) {
+                // Recreated after process death: the options and the call waiting on them are gone
+                dismiss();
+                return null;
             }
-            if (styleOptions.getMessageColor() != null) {
-                messageView.setTextColor(styleOptions.getMessageColor());
-            } else {
-                // M3 dialog supporting text color: onSurfaceVariant (#49454F)
-                // Use android.R.attr.textColorSecondary which maps to onSurfaceVariant in M3 themes
-                int onSurfaceVariantColor = MaterialColors.getColor(ctx, android.R.attr.textColorSecondary, 0xFF49454F);
-                messageView.setTextColor(onSurfaceVariantColor);
+            options = payload.options;
+            selection = payload.selection;
+            // Options are recycled, so the message scrolls with them as the list's header item
+            OptionListAdapter adapter = createOptionAdapter(type, message, styleOptions);
+            if (searchable) {
+                // For select dialogs the input placeholder is the search hint
+                search = new OptionSearch(adapter.getOptions(), adapter, getResources().getConfiguration().getLocales().get(0));
+                TextInputLayout searchField = OptionSearch.createField(ctx, inputPlaceholder, search);
+                LinearLayout.LayoutParams searchParams = (LinearLayout.LayoutParams) searchField.getLayoutParams();
+                searchParams.setMargins(horizontalPadding, (int) (8 * density), horizontalPadding, 0);
+                root.addView(searchField);
+            }
+            root.addView(createOptionList(adapter, message, type, horizontalPadding, verticalPadding));
+        } else {
+            // Create scroll view for content
+            ScrollView scrollView = new ScrollView(ctx);
+            scrollView.setLayoutParams(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 0, 1f));
+
+            LinearLayout contentLayout = new LinearLayout(ctx);
+            contentLayout.setOrientation(LinearLayout.VERTICAL);
+            contentLayout.setPadding(horizontalPadding, verticalPadding, horizontalPadding, verticalPadding);
+
+            // Add message
+            if (message != null && !message.isEmpty()) {
+                TextView messageView = new TextView(ctx);
+                styleMessageView(messageView, styleOptions);
+                // Long alert messages were measured off the main thread before the dialog was shown
+                PrecomputedTextCache.setText(messageView, message);
+                LinearLayout.LayoutParams messageParams = new LinearLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT,
+                    ViewGroup.LayoutParams.WRAP_CONTENT
+                );
+                messageParams.bottomMargin = (int) (32 * density);
+                messageView.setLayoutParams(messageParams);
+                contentLayout.addView(messageView);
             }
-            LinearLayout.LayoutParams messageParams = new LinearLayout.LayoutParams(
-                ViewGroup.LayoutParams.MATCH_PARENT,
-                ViewGroup.LayoutParams.WRAP_CONTENT
-            );
-            messageParams.bottomMargin = (int) (32 * density);
-            messageView.setLayoutParams(messageParams);
-            contentLayout.addView(messageView);
-        }
 
-        // Add type-specific content
-        switch (type) {
-            case PROMPT:
+            if (type == DialogType.PROMPT) {
                 addPromptContent(contentLayout, inputPlaceholder, inputText, focusInput);
-                break;
-            case SINGLE_SELECT:
-                addSingleSelectContent(contentLayout, optionsJson, inputText);
-                break;
-            case MULTI_SELECT:
-                addMultiSelectContent(contentLayout, optionsJson, inputText);
-                break;
-        }
+            }
 
-        scrollView.addView(contentLayout);
-        root.addView(scrollView);
+            scrollView.addView(contentLayout);
+            root.addView(scrollView);
+        }
 
         // Button container at the bottom
-        int primaryColorValue = MaterialColors.getColor(ctx, android.R.attr.colorPrimary, 0xFF6750A4);
+        int primaryColorValue = tokens.primary;
 
         LinearLayout buttonContainer = new LinearLayout(ctx);
         buttonContainer.setOrientation(LinearLayout.HORIZONTAL);
@@ -336,9 +334,7 @@ public class FullScreenDialogFragment extends DialogFragment {
         }
 
         // Disable confirming action until a choice is made for selection dialogs
-        if (type == DialogType.SINGLE_SELECT && selectedValue == null) {
-            okBtn.setEnabled(false);
-        } else if (type == DialogType.MULTI_SELECT && selectedValues.isEmpty()) {
+        if (selection != null && selection.isEmpty()) {
             okBtn.setEnabled(false);
         }
 
@@ -388,113 +384,54 @@ public class FullScreenDialogFragment extends DialogFragment {
         }
     }
 
-    private void addSingleSelectContent(LinearLayout container, String optionsJson, String selectedValueArg) {
-        if (optionsJson == null) return;
+    /** Applies the M3 dialog supporting-text style, or the caller's overrides, to {@code messageView}. */
+    static void styleMessageView(TextView messageView, DialogStyleOptions styleOptions) {
+        if (styleOptions.getMessageFontSize() != null) {
+            messageView.setTextSize(TypedValue.COMPLEX_UNIT_SP, styleOptions.getMessageFontSize());
+        } else {
+            // M3 dialog supporting text: 14sp, weight 400, tracking 0.25sp
+            TextViewCompat.setTextAppearance(messageView, com.google.android.material.R.style.TextAppearance_Material3_BodyMedium);
+        }
+        if (styleOptions.getMessageColor() != null) {
+            messageView.setTextColor(styleOptions.getMessageColor());
+        } else {
+            // M3 dialog supporting text color: onSurfaceVariant (#49454F)
+            messageView.setTextColor(ThemeTokens.of(messageView.getContext()).onSurfaceVariant);
+        }
+    }
 
-        selectedValue = selectedValueArg;
-        Context ctx = getThemedContext();
+    private OptionListAdapter createOptionAdapter(
+        DialogType type,
+        String message,
+        DialogStyleOptions styleOptions
+    ) {
         float density = getResources().getDisplayMetrics().density;
-        int itemPadding = (int) (20 * density);
-
-        try {
-            JSONArray options = new JSONArray(optionsJson);
-            RadioGroup radioGroup = new RadioGroup(ctx);
-            radioGroup.setPadding(0, itemPadding / 2, 0, 0);
-
-            for (int i = 0; i < options.length(); i++) {
-                JSONObject option = options.getJSONObject(i);
-                String label = option.getString("label");
-                String value = option.getString("value");
-
-                RadioButton radioButton = new RadioButton(ctx);
-                radioButton.setText(label);
-                TextViewCompat.setTextAppearance(radioButton, com.google.android.material.R.style.TextAppearance_Material3_BodyLarge);
-                // M3 list item text color: onSurface (#1D1B20)
-                // Use android.R.attr.textColorPrimary which maps to onSurface in M3 themes
-                int onSurfaceColor = MaterialColors.getColor(ctx, android.R.attr.textColorPrimary, 0xFF1D1B20);
-                radioButton.setTextColor(onSurfaceColor);
-                radioButton.setId(View.generateViewId());
-                radioButton.setPadding((int) (8 * density), itemPadding, 0, itemPadding);
-
-                if (value.equals(selectedValue)) {
-                    radioButton.setChecked(true);
-                }
-
-                final String finalValue = value;
-                radioButton.setOnCheckedChangeListener((buttonView, isChecked) -> {
-                    if (isChecked) {
-                        selectedValue = finalValue;
-                        // M3 guideline: Enable confirming action when a choice is made
-                        if (okBtn != null) {
-                            okBtn.setEnabled(true);
-                        }
-                    }
-                });
 
-                radioGroup.addView(radioButton);
+        return new OptionListAdapter(options, selection, message, styleOptions, (int) (32 * density) + groupTopPadding(type), density, () -> {
+            // M3 guideline: Enable confirming action when a choice is made
+            if (okBtn != null) {
+                okBtn.setEnabled(!selection.isEmpty());
             }
-
-            container.addView(radioGroup);
-        } catch (JSONException e) {
-            // Handle error
-        }
+        });
     }
 
-    private void addMultiSelectContent(LinearLayout container, String optionsJson, String selectedValuesJson) {
-        if (optionsJson == null) return;
-
-        // Parse selected values
-        if (selectedValuesJson != null) {
-            try {
-                JSONArray selected = new JSONArray(selectedValuesJson);
-                for (int i = 0; i < selected.length(); i++) {
-                    selectedValues.add(selected.getString(i));
-                }
-            } catch (JSONException e) {
-                // Ignore parsing errors
-            }
-        }
+    /** Single select options used to sit in a RadioGroup with half an item's padding on top. */
+    private int groupTopPadding(DialogType type) {
+        return type == DialogType.SINGLE_SELECT ? (int) (10 * getResources().getDisplayMetrics().density) : 0;
+    }
 
+    private RecyclerView createOptionList(OptionListAdapter adapter, String message, DialogType type, int horizontalPadding, int verticalPadding) {
         Context ctx = getThemedContext();
-        float density = getResources().getDisplayMetrics().density;
-        int itemPadding = (int) (20 * density);
-
-        try {
-            JSONArray options = new JSONArray(optionsJson);
-
-            for (int i = 0; i < options.length(); i++) {
-                JSONObject option = options.getJSONObject(i);
-                String label = option.getString("label");
-                String value = option.getString("value");
-
-                CheckBox checkBox = new CheckBox(ctx);
-                checkBox.setText(label);
-                TextViewCompat.setTextAppearance(checkBox, com.google.android.material.R.style.TextAppearance_Material3_BodyLarge);
-                // M3 list item text color: onSurface (#1D1B20)
-                // Use android.R.attr.textColorPrimary which maps to onSurface in M3 themes
-                int onSurfaceColor = MaterialColors.getColor(ctx, android.R.attr.textColorPrimary, 0xFF1D1B20);
-                checkBox.setTextColor(onSurfaceColor);
-                checkBox.setPadding((int) (8 * density), itemPadding, 0, itemPadding);
-                checkBox.setChecked(selectedValues.contains(value));
-
-                final String finalValue = value;
-                checkBox.setOnCheckedChangeListener((buttonView, isChecked) -> {
-                    if (isChecked) {
-                        selectedValues.add(finalValue);
-                    } else {
-                        selectedValues.remove(finalValue);
-                    }
-                    // M3 guideline: Enable confirming action when a choice is made
-                    if (okBtn != null) {
-                        okBtn.setEnabled(!selectedValues.isEmpty());
-                    }
-                });
-
-                container.addView(checkBox);
-            }
-        } catch (JSONException e) {
-            // Handle error
-        }
+        boolean hasMessage = message != null && !message.isEmpty();
+
+        RecyclerView optionList = new RecyclerView(ctx);
+        optionList.setLayoutParams(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 0, 1f));
+        optionList.setLayoutManager(new LinearLayoutManager(ctx));
+        optionList.setHasFixedSize(true);
+        optionList.setPadding(horizontalPadding, verticalPadding + (hasMessage ? 0 : groupTopPadding(type)), horizontalPadding, verticalPadding);
+        optionList.setClipToPadding(false);
+        optionList.setAdapter(adapter);
+        return optionList;
     }
 
     private void handleConfirm(DialogType type) {
@@ -518,12 +455,12 @@ public class FullScreenDialogFragment extends DialogFragment {
                 break;
             case SINGLE_SELECT:
                 if (singleSelectCallback != null) {
-                    singleSelectCallback.onResult(selectedValue, false);
+                    singleSelectCallback.onResult(selection != null ? selection.selectedValue() : null, false);
                 }
                 break;
             case MULTI_SELECT:
                 if (multiSelectCallback != null) {
-                    multiSelectCallback.onResult(selectedValues.toArray(new String[0]), false);
+                    multiSelectCallback.onResult(selection != null ? selection.selectedValues() : new String[0], false);
                 }
                 break;
         }
@@ -567,6 +504,26 @@ public class FullScreenDialogFragment extends DialogFragment {
         }
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (search != null) {
+            search.close();
+            search = null;
+        }
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        // Keep the payload across configuration changes; the recreated fragment picks it up
+        Bundle args = getArguments();
+        FragmentActivity activity = getActivity();
+        if (args != null && args.getString(ARG_SESSION_ID) != null && activity != null && !activity.isChangingConfigurations()) {
+            DialogPayloadStore.of(activity).remove(args.getString(ARG_SESSION_ID));
+        }
+    }
+
     @Override
     public void onCancel(@NonNull DialogInterface dialog) {
         super.onCancel(dialog);
@@ -0,0 +1,200 @@
+package com.albermonte.extendeddialog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Fetches remote logo bytes through {@link DiskImageCache}.
+ *
+ * Fresh entries are served without touching the network. Stale entries that carry an
+ * {@code ETag} or {@code Last-Modified} are revalidated with a conditional GET, and a
+ * {@code 304} only refreshes their expiry. Every request is bounded by connect, read and
+ * whole-call timeouts and by a maximum body size. Bodies are read to the end and the
+ * stream closed (never {@code disconnect()}ed on success) so HttpURLConnection can hand
+ * the socket back to its keep-alive pool.
+ */
+final class HttpImageFetcher {
+
+    static final int DEFAULT_CONNECT_TIMEOUT_MS = 10_000;
+    static final int DEFAULT_READ_TIMEOUT_MS = 10_000;
+    static final int DEFAULT_CALL_TIMEOUT_MS = 30_000;
+    static final long DEFAULT_MAX_BYTES = 8L * 1024 * 1024;
+
+    /** Used when a response has validators but no explicit lifetime. */
+    private static final long HEURISTIC_MAX_FRESHNESS_MS = 24L * 60 * 60 * 1000;
+
+    private static volatile int connectTimeoutMs = DEFAULT_CONNECT_TIMEOUT_MS;
+    private static volatile int readTimeoutMs = DEFAULT_READ_TIMEOUT_MS;
+    private static volatile int callTimeoutMs = DEFAULT_CALL_TIMEOUT_MS;
+    private static volatile long maxBytes = DEFAULT_MAX_BYTES;
+
+    private HttpImageFetcher() {}
+
+    /** Values of 0 or less restore the corresponding default. */
+    static void setTimeouts(int connectMs, int readMs, int callMs) {
+        connectTimeoutMs = connectMs > 0 ? connectMs : DEFAULT_CONNECT_TIMEOUT_MS;
+        readTimeoutMs = readMs > 0 ? readMs : DEFAULT_READ_TIMEOUT_MS;
+        callTimeoutMs = callMs > 0 ? callMs : DEFAULT_CALL_TIMEOUT_MS;
+    }
+
+    static void setMaxBytes(long bytes) {
+        maxBytes = bytes > 0 ? bytes : DEFAULT_MAX_BYTES;
+    }
+
+    static byte[] fetch(String source) throws IOException {
+        return fetch(source, DiskImageCache.shared());
+    }
+
+    static byte[] fetch(String source, DiskImageCache cache) throws IOException {
+        DiskImageCache.Entry cached = cache != null ? cache.getEntry(source) : null;
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.isFresh(now)) {
+            return cached.payload;
+        }
+        try {
+            return fetchFromNetwork(source, cache, cached, now);
+        } catch (IOException e) {
+            if (cached == null) throw e;
+            // A stale logo beats no logo while the CDN is unreachable.
+            android.util.Log.w("ExtendedDialog", "Serving stale image after fetch failure: " + e.getMessage());
+            return cached.payload;
+        }
+    }
+
+    private static byte[] fetchFromNetwork(String source, DiskImageCache cache, DiskImageCache.Entry cached, long now)
+        throws IOException {
+        URLConnection opened = new URL(source).openConnection();
+        if (!(opened instanceof HttpURLConnection)) {
+            // file: and other non-HTTP schemes: no validators, just the size cap.
+            opened.setConnectTimeout(connectTimeoutMs);
+            opened.setReadTimeout(readTimeoutMs);
+            try (InputStream in = opened.getInputStream()) {
+                return readBody(in, opened.getContentLengthLong(), now + callTimeoutMs);
+            }
+        }
+
+        HttpURLConnection connection = (HttpURLConnection) opened;
+        connection.setConnectTimeout(connectTimeoutMs);
+        connection.setReadTimeout(readTimeoutMs);
+        connection.setInstanceFollowRedirects(true);
+        // The disk cache is our HTTP cache; keep a platform ResponseCache out of the way.
+        connection.setUseCaches(false);
+        if (cached != null && cached.canRevalidate()) {
+            if (cached.etag != null) connection.setRequestProperty("If-None-Match", cached.etag);
+            if (cached.lastModified != null) connection.setRequestProperty("If-Modified-Since", cached.lastModified);
+        }
+
+        boolean completed = false;
+        try {
+            int status = connection.getResponseCode();
+            long expiresAt = expiresAt(connection, now);
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null && cache != null) {
+                drain(connection);
+                completed = true;
+                String etag = connection.getHeaderField("ETag");
+                cache.touch(source, etag != null ? etag : cached.etag, cached.lastModified, expiresAt);
+                return cached.payload;
+            }
+            if (status < 200 || status >= 300) {
+                throw new IOException("HTTP " + status + " for image");
+            }
+            byte[] body;
+            try (InputStream in = connection.getInputStream()) {
+                body = readBody(in, connection.getContentLengthLong(), now + callTimeoutMs);
+            }
+            completed = true;
+            if (cache != null && !hasDirective(connection, "no-store")) {
+                cache.put(source, body, connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"), expiresAt);
+            }
+            return body;
+        } finally {
+            if (!completed) {
+                // The socket may still hold unread bytes; don't return it to the pool.
+                connection.disconnect();
+            }
+        }
+    }
+
+    /** Reads {@code in} to the end, enforcing the byte limit and the whole-call deadline. */
+    static byte[] readBody(InputStream in, long contentLength, long deadline) throws IOException {
+        long limit = maxBytes;
+        if (contentLength > limit) {
+            throw new IOException("Image of " + contentLength + " bytes exceeds the " + limit + " byte limit");
+        }
+        byte[] body = new byte[contentLength > 0 ? (int) contentLength : 16 * 1024];
+        int length = 0;
+        while (true) {
+            if (length == body.length) {
+                // Probe before growing so an exact Content-Length never doubles the buffer.
+                int next = in.read();
+                if (next == -1) break;
+                if (length >= limit) {
+                    throw new IOException("Image exceeds the " + limit + " byte limit");
+                }
+                body = Arrays.copyOf(body, (int) Math.min(limit, (long) body.length * 2));
+                body[length++] = (byte) next;
+            }
+            int read = in.read(body, length, body.length - length);
+            if (read == -1) break;
+            length += read;
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException("Image download timed out");
+            }
+        }
+        return length == body.length ? body : Arrays.copyOf(body, length);
+    }
+
+    private static void drain(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buffer = new byte[512];
+            while (in.read(buffer) != -1) {}
+        }
+    }
+
+    /**
+     * Wall-clock expiry from {@code Cache-Control: max-age} or {@code Expires}; responses
+     * with neither get a heuristic lifetime of 10% of their {@code Last-Modified} age, capped
+     * at a day. Responses with none of these are stale at once.
+     */
+    static long expiresAt(HttpURLConnection connection, long now) {
+        if (hasDirective(connection, "no-cache") || hasDirective(connection, "no-store")) {
+            return now;
+        }
+        String cacheControl = connection.getHeaderField("Cache-Control");
+        if (cacheControl != null) {
+            for (String directive : cacheControl.split(",")) {
+                String trimmed = directive.trim().toLowerCase(Locale.US);
+                if (trimmed.startsWith("max-age=")) {
+                    try {
+                        long seconds = Long.parseLong(trimmed.substring("max-age=".length()).trim());
+                        // Saturate rather than overflow on absurd lifetimes.
+                        return now + Math.max(0, Math.min(seconds, (Long.MAX_VALUE - now) / 1000)) * 1000;
+                    } catch (NumberFormatException ignored) {
+                        return now;
+                    }
+                }
+            }
+        }
+        long expires = connection.getHeaderFieldDate("Expires", 0);
+        if (expires > 0) {
+            long date = connection.getHeaderFieldDate("Date", now);
+            return now + Math.max(0, expires - date);
+        }
+        long lastModified = connection.getHeaderFieldDate("Last-Modified", 0);
+        if (lastModified > 0) {
+            long date = connection.getHeaderFieldDate("Date", now);
+            return now + Math.min(HEURISTIC_MAX_FRESHNESS_MS, Math.max(0, date - lastModified) / 10);
+        }
+        return now;
+    }
+
+    private static boolean hasDirective(HttpURLConnection connection, String directive) {
+        String cacheControl = connection.getHeaderField("Cache-Control");
+        return cacheControl != null && cacheControl.toLowerCase(Locale.US).contains(directive);
+    }
+}
@@ -0,0 +1,490 @@
+package com.albermonte.extendeddialog;
+
+import android.graphics.Bitmap;
+import android.graphics.Picture;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.PictureDrawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads header and row logos off the main thread.
+ *
+ * At most {@link #MAX_CONCURRENT_LOADS} requests run at once; the rest wait in a
+ * priority queue (header first, then rows in display order). Pending requests are
+ * cancelled when their {@link Group} is cancelled or their {@link Target} is rebound.
+ * Concurrent requests for the same source and size share one fetch and decode.
+ * Bound bitmaps hold a {@link BitmapPool} reference until their Group is cancelled.
+ * SVGs are bound as {@link PictureDrawable}s when {@link SvgImageLoader#usePictures()}
+ * allows it, so one recording serves every size and density.
+ */
+final class ImageLoader {
+
+    static final int PRIORITY_HEADER = 0;
+    static final int PRIORITY_ROW = 1;
+
+    /** Preloads run after every header and row currently on screen. */
+    static final int PRIORITY_PRELOAD = Integer.MAX_VALUE;
+
+    private static final int MAX_CONCURRENT_LOADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static final Object LOCK = new Object();
+    private static final PriorityQueue<Load> PENDING = new PriorityQueue<>();
+    private static final HashMap<String, Load> IN_FLIGHT = new HashMap<>();
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    // Main thread only.
+    private static final TargetBindings<Target, Request> BOUND = new TargetBindings<>();
+    // Pooled bitmaps currently shown by each target; main thread only.
+    private static final WeakHashMap<Target, Bitmap> DISPLAYED = new WeakHashMap<>();
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private static final Executor DEFAULT_EXECUTOR = Executors.newFixedThreadPool(MAX_CONCURRENT_LOADS, (runnable) -> {
+        Thread thread = new Thread(
+            () -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            },
+            "ExtendedDialog-image"
+        );
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static Executor executor = DEFAULT_EXECUTOR;
+    private static int running;
+
+    private ImageLoader() {}
+
+    /** Routes image work to a host-supplied executor; {@code null} restores the built-in pool. */
+    static void setExecutor(Executor hostExecutor) {
+        synchronized (LOCK) {
+            executor = hostExecutor != null ? hostExecutor : DEFAULT_EXECUTOR;
+        }
+    }
+
+    /** Binds {@code source} to {@code imageView}; see {@link #load(Group, Target, String, int)}. */
+    static void load(Group group, ImageView imageView, String source, int priority) {
+        load(group, new ImageViewTarget(imageView), source, priority);
+    }
+
+    /**
+     * Binds {@code source} to {@code target}. Memory-cache hits are bound synchronously;
+     * anything else is queued at {@code priority} (lower runs first). An empty source
+     * clears the target. Must be called on the main thread.
+     */
+    static void load(Group group, Target target, String source, int priority) {
+        Request previous = BOUND.unbind(target);
+        if (previous != null) {
+            previous.cancel();
+        }
+        if (source == null || source.isEmpty()) {
+            clear(target);
+            return;
+        }
+
+        boolean vector = SvgImageLoader.usePictures() && SvgImageLoader.isSvgSource(source);
+        if (vector) {
+            Picture picture = SvgImageLoader.cachedPicture(source);
+            if (picture != null) {
+                display(group, target, null, picture);
+                return;
+            }
+        }
+
+        int width = target.getTargetWidth();
+        int height = target.getTargetHeight();
+        String cacheKey = BitmapMemoryCache.key(source, width, height);
+        Bitmap cached = vector ? null : BitmapMemoryCache.acquire(cacheKey);
+        if (cached != null) {
+            // Repeat sheets bind synchronously: no network, no decode.
+            display(group, target, cached, null);
+            return;
+        }
+
+        // A recycled row view must not keep showing the previous row's logo while this one loads.
+        clear(target);
+        Request request = new Request(group, target, null, priority);
+        BOUND.bind(target, request);
+        if (group != null) {
+            group.add(request);
+        }
+        enqueue(request, source, cacheKey, vector, width, height);
+    }
+
+    /**
+     * Fetches and decodes {@code source} at {@code width} x {@code height} pixels into the
+     * memory cache without binding it, behind anything on screen. {@code listener} runs on a
+     * worker thread (or synchronously on a cache hit). Safe to call from any thread.
+     */
+    static void preload(String source, int width, int height, Listener listener) {
+        preload(source, width, height, PRIORITY_PRELOAD, listener);
+    }
+
+    /**
+     * Starts loading {@code source} for a view that is about to be bound, at that view's
+     * priority, so the bind hits the memory cache or joins the load already under way.
+     */
+    static void prefetch(String source, int width, int height, int priority) {
+        preload(source, width, height, priority, null);
+    }
+
+    private static void preload(String source, int width, int height, int priority, Listener listener) {
+        boolean vector = SvgImageLoader.usePictures() && SvgImageLoader.isSvgSource(source);
+        String cacheKey = BitmapMemoryCache.key(source, width, height);
+        if (vector ? SvgImageLoader.cachedPicture(source) != null : BitmapMemoryCache.get(cacheKey) != null) {
+            if (listener != null) listener.onComplete(null);
+            return;
+        }
+        enqueue(new Request(null, null, listener, priority), source, cacheKey, vector, width, height);
+    }
+
+    private static void enqueue(Request request, String source, String cacheKey, boolean vector, int width, int height) {
+        // Pictures are size-independent, so every SVG request for a source can share one recording.
+        String loadKey = vector ? "picture:" + BitmapMemoryCache.sourceKey(source) : cacheKey;
+        synchronized (LOCK) {
+            Load pending = IN_FLIGHT.get(loadKey);
+            if (pending == null) {
+                pending = new Load(loadKey, source, cacheKey, vector, width, height, request.priority, SEQUENCE.getAndIncrement());
+                IN_FLIGHT.put(loadKey, pending);
+                PENDING.add(pending);
+            } else if (!pending.started && request.priority < pending.priority) {
+                // A header joining a queued row load (or a row joining a preload) lifts the shared load.
+                PENDING.remove(pending);
+                pending.priority = request.priority;
+                PENDING.add(pending);
+            }
+            pending.waiters.add(request);
+            request.load = pending;
+            drainLocked();
+        }
+    }
+
+    private static void drainLocked() {
+        while (running < MAX_CONCURRENT_LOADS) {
+            Load next = PENDING.poll();
+            if (next == null) return;
+            next.started = true;
+            running++;
+            try {
+                executor.execute(() -> run(next));
+            } catch (RejectedExecutionException e) {
+                running--;
+                IN_FLIGHT.remove(next.key, next);
+                android.util.Log.w("ExtendedDialog", "Image executor rejected load: " + e.getMessage());
+                for (Request request : next.waiters) {
+                    if (request.listener != null) request.listener.onComplete("Image executor rejected load");
+                }
+                unbindLater(new ArrayList<>(next.waiters));
+                return;
+            }
+        }
+    }
+
+    private static void run(Load load) {
+        try {
+            if (load.vector) {
+                deliver(load, null, SvgImageLoader.renderPicture(load.source));
+                return;
+            }
+            // An earlier load for the same logo may have finished while this one was queued.
+            Bitmap bitmap = BitmapMemoryCache.acquire(load.cacheKey);
+            if (bitmap == null) {
+                bitmap = decodeImage(load.source, load.targetWidth, load.targetHeight);
+                if (bitmap == null) {
+                    fail(load, "Unsupported image format");
+                    return;
+                }
+                BitmapMemoryCache.put(load.cacheKey, bitmap);
+            }
+            deliver(load, bitmap, null);
+            // Every waiting view now holds its own reference.
+            BitmapPool.release(bitmap);
+        } catch (Exception e) {
+            android.util.Log.w("ExtendedDialog", "Failed to load image: " + e.getMessage());
+            fail(load, e.getMessage() != null ? e.getMessage() : e.toString());
+        } finally {
+            DataUrlDecoder.trimThreadBuffer();
+            synchronized (LOCK) {
+                // Later requests for this key hit the memory cache or start a fresh load.
+                IN_FLIGHT.remove(load.key, load);
+                running--;
+                drainLocked();
+            }
+        }
+    }
+
+    /**
+     * Fans one decoded bitmap or picture out to every target and preload still waiting
+     * on {@code load}. Each view gets its own pool reference, dropped again if it was cancelled.
+     */
+    private static void deliver(Load load, Bitmap bitmap, Picture picture) {
+        List<Request> waiters = takeWaiters(load);
+        List<Request> views = new ArrayList<>(waiters.size());
+        for (Request request : waiters) {
+            if (request.target == null) {
+                if (request.listener != null) request.listener.onComplete(null);
+            } else {
+                if (bitmap != null) BitmapPool.retain(bitmap);
+                views.add(request);
+            }
+        }
+        if (views.isEmpty()) return;
+        MAIN.post(() -> {
+            for (Request request : views) {
+                if (request.cancelled) {
+                    if (bitmap != null) BitmapPool.release(bitmap);
+                    continue;
+                }
+                display(request.group, request.target, bitmap, picture);
+                BOUND.unbind(request.target, request);
+            }
+        });
+    }
+
+    private static void clear(Target target) {
+        Bitmap previous = DISPLAYED.remove(target);
+        target.setImageDrawable(null);
+        if (previous != null) {
+            BitmapPool.release(previous);
+        }
+    }
+
+    /** Shows {@code bitmap} (whose reference the target takes over) or {@code picture}. */
+    private static void display(Group group, Target target, Bitmap bitmap, Picture picture) {
+        Bitmap previous = DISPLAYED.remove(target);
+        if (bitmap != null) {
+            target.setImageBitmap(bitmap);
+            DISPLAYED.put(target, bitmap);
+        } else {
+            target.setImageDrawable(new PictureDrawable(picture));
+        }
+        if (group != null) {
+            group.addTarget(target);
+        }
+        if (previous != null) {
+            BitmapPool.release(previous);
+        }
+    }
+
+    private static void fail(Load load, String error) {
+        List<Request> waiters = takeWaiters(load);
+        for (Request request : waiters) {
+            if (request.listener != null) {
+                request.listener.onComplete(error);
+            }
+        }
+        unbindLater(waiters);
+    }
+
+    /** Drops the bindings of targets whose load ended without an image, so the views can be collected. */
+    private static void unbindLater(List<Request> requests) {
+        List<Request> views = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            if (request.target != null) views.add(request);
+        }
+        if (views.isEmpty()) return;
+        MAIN.post(() -> {
+            for (Request request : views) {
+                BOUND.unbind(request.target, request);
+            }
+        });
+    }
+
+    private static List<Request> takeWaiters(Load load) {
+        synchronized (LOCK) {
+            IN_FLIGHT.remove(load.key, load);
+            List<Request> waiters = new ArrayList<>(load.waiters);
+            load.waiters.clear();
+            return waiters;
+        }
+    }
+
+    private static Bitmap decodeImage(String imageUrl, int width, int height) throws Exception {
+        if (SvgImageLoader.isSvgSource(imageUrl)) {
+            return SvgImageLoader.render(imageUrl, width, height);
+        }
+        if (SvgImageLoader.isDataUrl(imageUrl)) {
+            return BitmapDecoder.decode(DataUrlDecoder.decode(imageUrl), width, height);
+        }
+        byte[] bytes = HttpImageFetcher.fetch(imageUrl);
+        return BitmapDecoder.decode(bytes, 0, bytes.length, width, height);
+    }
+
+    /** Where a logo is shown: an ImageView, or a view that draws the logo itself. Main thread only. */
+    interface Target {
+        /** Decode width in pixels. */
+        int getTargetWidth();
+
+        /** Decode height in pixels. */
+        int getTargetHeight();
+
+        void setImageBitmap(Bitmap bitmap);
+
+        /** Shows {@code drawable}, or nothing when null. */
+        void setImageDrawable(Drawable drawable);
+    }
+
+    /** Adapts an ImageView; equal to any other adapter of the same view, so rebinding it cancels the old load. */
+    static final class ImageViewTarget implements Target {
+
+        private final ImageView imageView;
+
+        ImageViewTarget(ImageView imageView) {
+            this.imageView = imageView;
+        }
+
+        /** Sized from the layout params, which the dialogs always set explicitly; 64dp otherwise. */
+        @Override
+        public int getTargetWidth() {
+            ViewGroup.LayoutParams params = imageView.getLayoutParams();
+            return params != null && params.width > 0 ? params.width : fallbackSize();
+        }
+
+        @Override
+        public int getTargetHeight() {
+            ViewGroup.LayoutParams params = imageView.getLayoutParams();
+            return params != null && params.height > 0 ? params.height : fallbackSize();
+        }
+
+        private int fallbackSize() {
+            return (int) (64 * imageView.getResources().getDisplayMetrics().density);
+        }
+
+        @Override
+        public void setImageBitmap(Bitmap bitmap) {
+            imageView.setImageBitmap(bitmap);
+        }
+
+        @Override
+        public void setImageDrawable(Drawable drawable) {
+            imageView.setImageDrawable(drawable);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ImageViewTarget && ((ImageViewTarget) other).imageView == imageView;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(imageView);
+        }
+    }
+
+    /** Tracks the requests and views of one dialog so they can be cancelled and released together. */
+    static final class Group {
+
+        private final List<Request> requests = new ArrayList<>();
+        private final List<Target> targets = new ArrayList<>();
+
+        private synchronized void add(Request request) {
+            requests.add(request);
+        }
+
+        private synchronized void addTarget(Target target) {
+            targets.add(target);
+        }
+
+        /** Cancels pending loads, unbinding their targets, and returns displayed bitmaps to the pool. Main thread only. */
+        synchronized void cancelAll() {
+            for (Request request : requests) {
+                request.cancel();
+            }
+            requests.clear();
+            for (Target target : targets) {
+                Bitmap bitmap = DISPLAYED.remove(target);
+                if (bitmap != null) {
+                    target.setImageDrawable(null);
+                    BitmapPool.release(bitmap);
+                }
+            }
+            targets.clear();
+        }
+    }
+
+    /** Completion callback for {@link #preload}; {@code error} is null on success. */
+    interface Listener {
+        void onComplete(String error);
+    }
+
+    /** One target, or one preload (with an optional listener), waiting on a {@link Load}. */
+    private static final class Request {
+
+        final Group group;
+        final Target target;
+        final Listener listener;
+        final int priority;
+        Load load;
+        volatile boolean cancelled;
+
+        Request(Group group, Target target, Listener listener, int priority) {
+            this.group = group;
+            this.target = target;
+            this.listener = listener;
+            this.priority = priority;
+        }
+
+        /** Main thread only. */
+        void cancel() {
+            cancelled = true;
+            if (target != null) {
+                BOUND.unbind(target, this);
+            }
+            synchronized (LOCK) {
+                if (load == null) return;
+                load.waiters.remove(this);
+                // Drop queued loads nobody is waiting for; running ones finish and warm the cache.
+                if (load.waiters.isEmpty() && !load.started) {
+                    PENDING.remove(load);
+                    IN_FLIGHT.remove(load.key, load);
+                }
+            }
+        }
+    }
+
+    /** A single fetch and decode for one (source, size) key, shared by all its waiters. */
+    private static final class Load implements Comparable<Load> {
+
+        final String key;
+        final String source;
+        final String cacheKey;
+        final boolean vector;
+        final int targetWidth;
+        final int targetHeight;
+        final int sequence;
+        final List<Request> waiters = new ArrayList<>(1);
+        int priority;
+        boolean started;
+
+        Load(String key, String source, String cacheKey, boolean vector, int targetWidth, int targetHeight, int priority, int sequence) {
+            this.key = key;
+            this.source = source;
+            this.cacheKey = cacheKey;
+            this.vector = vector;
+            this.targetWidth = targetWidth;
+            this.targetHeight = targetHeight;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Load other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            return Integer.compare(sequence, other.sequence);
+        }
+    }
+}
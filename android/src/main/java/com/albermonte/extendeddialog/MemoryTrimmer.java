@@ -0,0 +1,189 @@
+package com.albermonte.extendeddialog;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.util.LruCache;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Shrinks the plugin's in-memory caches when the system reports memory pressure.
+ *
+ * Caches register a {@link Trimmable}; {@link #onTrimMemory} keeps a fraction of each
+ * depending on the trim level and records what was freed for {@link #stats()}.
+ * On low-RAM (Android Go) devices every cache gets half its usual budget and is cleared
+ * as soon as the app leaves the foreground.
+ */
+final class MemoryTrimmer implements ComponentCallbacks2 {
+
+    /** A cache that can report its size and drop its least recently used entries. */
+    interface Trimmable {
+        String name();
+
+        int entryCount();
+
+        /** Approximate bytes held, or -1 when the cache only counts entries. */
+        long sizeBytes();
+
+        /** Keeps at most {@code fraction} of the current contents; 0 clears the cache. */
+        void trimTo(float fraction);
+
+        /** Divides the cache's maximum size for good, evicting whatever no longer fits. */
+        void shrinkBudget(int divisor);
+    }
+
+    private static final List<Trimmable> CACHES = new CopyOnWriteArrayList<>();
+
+    private static volatile boolean lowRamDevice;
+    private static volatile TrimReport lastTrim;
+    private static boolean builtInCachesRegistered;
+
+    MemoryTrimmer(Context context) {
+        registerBuiltInCaches();
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        if (activityManager != null && activityManager.isLowRamDevice() && !lowRamDevice) {
+            lowRamDevice = true;
+            shrinkBudgets(2);
+        }
+    }
+
+    /**
+     * Registers the plugin's own caches on first construction rather than in a static block,
+     * so {@link #retainedFraction} and {@link #trim} never initialize their Android classes.
+     */
+    private static synchronized void registerBuiltInCaches() {
+        if (builtInCachesRegistered) return;
+        builtInCachesRegistered = true;
+        register(BitmapMemoryCache.TRIMMABLE);
+        register(BitmapPool.TRIMMABLE);
+        register(SvgImageLoader.DOCUMENTS_TRIMMABLE);
+        register(SvgImageLoader.PICTURES_TRIMMABLE);
+        register(PrecomputedTextCache.TRIMMABLE);
+    }
+
+    static void register(Trimmable cache) {
+        CACHES.add(cache);
+    }
+
+    static void shrinkBudgets(int divisor) {
+        for (Trimmable cache : CACHES) {
+            cache.shrinkBudget(divisor);
+        }
+    }
+
+    /** Fraction of each cache to keep for {@code level}. */
+    static float retainedFraction(int level, boolean lowRam) {
+        if (level >= TRIM_MEMORY_COMPLETE || level == TRIM_MEMORY_RUNNING_CRITICAL) return 0f;
+        if (level >= TRIM_MEMORY_MODERATE || level == TRIM_MEMORY_RUNNING_LOW) return lowRam ? 0f : 0.25f;
+        if (level >= TRIM_MEMORY_UI_HIDDEN || level == TRIM_MEMORY_RUNNING_MODERATE) return lowRam ? 0f : 0.5f;
+        return 1f;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        trim(level, retainedFraction(level, lowRamDevice));
+    }
+
+    @Override
+    public void onLowMemory() {
+        trim(TRIM_MEMORY_COMPLETE, 0f);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {}
+
+    static TrimReport trim(int level, float fraction) {
+        if (fraction >= 1f) return null;
+        List<CacheStats> freed = new ArrayList<>(CACHES.size());
+        for (Trimmable cache : CACHES) {
+            int entries = cache.entryCount();
+            long bytes = cache.sizeBytes();
+            cache.trimTo(fraction);
+            long bytesFreed = bytes >= 0 ? bytes - cache.sizeBytes() : -1;
+            freed.add(new CacheStats(cache.name(), entries - cache.entryCount(), bytesFreed));
+        }
+        TrimReport report = new TrimReport(level, System.currentTimeMillis(), freed);
+        lastTrim = report;
+        return report;
+    }
+
+    static List<CacheStats> stats() {
+        List<CacheStats> stats = new ArrayList<>(CACHES.size());
+        for (Trimmable cache : CACHES) {
+            stats.add(new CacheStats(cache.name(), cache.entryCount(), cache.sizeBytes()));
+        }
+        return stats;
+    }
+
+    static TrimReport lastTrim() {
+        return lastTrim;
+    }
+
+    static boolean isLowRamDevice() {
+        return lowRamDevice;
+    }
+
+    /** Adapts an entry-counted {@link LruCache} (where size() is the entry count). */
+    static Trimmable countedCache(String name, LruCache<?, ?> cache) {
+        return new Trimmable() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public int entryCount() {
+                return cache.size();
+            }
+
+            @Override
+            public long sizeBytes() {
+                return -1;
+            }
+
+            @Override
+            public void trimTo(float fraction) {
+                if (fraction <= 0f) {
+                    cache.evictAll();
+                } else {
+                    cache.trimToSize((int) (cache.size() * fraction));
+                }
+            }
+
+            @Override
+            public void shrinkBudget(int divisor) {
+                cache.resize(Math.max(1, cache.maxSize() / divisor));
+            }
+        };
+    }
+
+    /** Entries and bytes held by, or freed from, one cache. Bytes are -1 when not tracked. */
+    static final class CacheStats {
+
+        final String name;
+        final int entries;
+        final long bytes;
+
+        CacheStats(String name, int entries, long bytes) {
+            this.name = name;
+            this.entries = entries;
+            this.bytes = bytes;
+        }
+    }
+
+    static final class TrimReport {
+
+        final int level;
+        final long timestamp;
+        final List<CacheStats> freed;
+
+        TrimReport(int level, long timestamp, List<CacheStats> freed) {
+            this.level = level;
+            this.timestamp = timestamp;
+            this.freed = freed;
+        }
+    }
+}
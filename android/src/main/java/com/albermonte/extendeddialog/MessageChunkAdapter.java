@@ -0,0 +1,38 @@
+package com.albermonte.extendeddialog;
+
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.List;
+
+/** Binds {@link MessageChunker} chunks of a long message sheet body, laying out only the visible ones. */
+final class MessageChunkAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+    private final List<String> chunks;
+    private final DialogStyleOptions styleOptions;
+
+    MessageChunkAdapter(List<String> chunks, DialogStyleOptions styleOptions) {
+        this.chunks = chunks;
+        this.styleOptions = styleOptions;
+    }
+
+    @Override
+    public int getItemCount() {
+        return chunks.size();
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        TextView chunkView = new TextView(parent.getContext());
+        SheetBottomDialogFragment.styleMessageView(chunkView, styleOptions);
+        chunkView.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        return new RecyclerView.ViewHolder(chunkView) {};
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        ((TextView) holder.itemView).setText(chunks.get(position));
+    }
+}
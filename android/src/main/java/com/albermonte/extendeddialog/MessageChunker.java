@@ -0,0 +1,56 @@
+package com.albermonte.extendeddialog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits very long messages into chunks that render as consecutive TextViews with the
+ * same visual result as one TextView. Chunks end at a line break where possible (the
+ * break itself is dropped, since the next chunk starts on a new line anyway), otherwise
+ * at a space, otherwise at the length limit.
+ */
+final class MessageChunker {
+
+    /** Messages at least this long are shown in a recycled list of chunks. */
+    static final int MIN_CHUNKED_LENGTH = 10_000;
+
+    /** Upper bound on chunk length; a few screens of text at most. */
+    static final int CHUNK_LENGTH = 2_000;
+
+    private MessageChunker() {}
+
+    static boolean shouldChunk(String message) {
+        return message != null && message.length() >= MIN_CHUNKED_LENGTH;
+    }
+
+    static List<String> split(String text, int maxLength) {
+        List<String> chunks = new ArrayList<>(text.length() / maxLength + 1);
+        int start = 0;
+        while (text.length() - start > maxLength) {
+            int limit = start + maxLength;
+            int end = text.lastIndexOf('\n', limit);
+            int next = end + 1;
+            if (end <= start) {
+                end = lastSpace(text, start, limit);
+                next = end + 1;
+            }
+            if (end <= start) {
+                end = limit;
+                // Never split a surrogate pair.
+                if (Character.isHighSurrogate(text.charAt(end - 1))) end--;
+                next = end;
+            }
+            chunks.add(text.substring(start, end));
+            start = next;
+        }
+        chunks.add(text.substring(start));
+        return chunks;
+    }
+
+    private static int lastSpace(String text, int start, int limit) {
+        for (int i = limit; i > start; i--) {
+            if (text.charAt(i) == ' ') return i;
+        }
+        return -1;
+    }
+}
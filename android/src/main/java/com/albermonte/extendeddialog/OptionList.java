@@ -0,0 +1,41 @@
+package com.albermonte.extendeddialog;
+
+/** The {@code options} of a select dialog as parallel label/value arrays; see {@link OptionListParser}. */
+final class OptionList {
+
+    static final OptionList EMPTY = new OptionList(new String[0], new String[0]);
+
+    private final String[] labels;
+    private final String[] values;
+
+    OptionList(String[] labels, String[] values) {
+        this.labels = labels;
+        this.values = values;
+    }
+
+    int size() {
+        return values.length;
+    }
+
+    String label(int index) {
+        return labels[index];
+    }
+
+    String value(int index) {
+        return values[index];
+    }
+
+    /** A copy of the labels, for the platform choice lists. */
+    String[] labels() {
+        return labels.clone();
+    }
+
+    /** Index of the first option with {@code value}, or -1. */
+    int indexOf(String value) {
+        if (value == null) return -1;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) return i;
+        }
+        return -1;
+    }
+}
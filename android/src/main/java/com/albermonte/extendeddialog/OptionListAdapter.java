@@ -0,0 +1,168 @@
+package com.albermonte.extendeddialog;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.CheckBox;
+import android.widget.CompoundButton;
+import android.widget.RadioButton;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.core.widget.TextViewCompat;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.List;
+
+/**
+ * Binds the options of a select dialog into recycled radio buttons or checkboxes, with
+ * the dialog message as an optional header item. Checked state always comes from the
+ * {@link OptionSelection}, never from the recycled view, and is keyed by option index so
+ * it survives filtering.
+ */
+final class OptionListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+    static final int TYPE_HEADER = 0;
+    static final int TYPE_OPTION = 1;
+
+    /** Rebinds only the checked state of a row. */
+    private static final Object PAYLOAD_CHECKED = new Object();
+
+    private final OptionList options;
+    private final OptionSelection selection;
+    private final String message;
+    private final DialogStyleOptions styleOptions;
+    private final int headerBottomPadding;
+    private final float density;
+    private final Runnable onSelectionChanged;
+    /** Option indices shown, in order, or null for every option in its original order. */
+    private int[] visible;
+
+    OptionListAdapter(
+        OptionList options,
+        OptionSelection selection,
+        String message,
+        DialogStyleOptions styleOptions,
+        int headerBottomPadding,
+        float density,
+        Runnable onSelectionChanged
+    ) {
+        this.options = options;
+        this.selection = selection;
+        this.message = message != null && !message.isEmpty() ? message : null;
+        this.styleOptions = styleOptions;
+        this.headerBottomPadding = headerBottomPadding;
+        this.density = density;
+        this.onSelectionChanged = onSelectionChanged;
+        setHasStableIds(true);
+    }
+
+    OptionList getOptions() {
+        return options;
+    }
+
+    /** Shows only {@code indices} (e.g. search results), or every option when null. */
+    void setVisibleOptions(int[] indices) {
+        visible = indices;
+        notifyDataSetChanged();
+    }
+
+    private int optionAt(int position) {
+        int offset = position - headerCount();
+        return visible != null ? visible[offset] : offset;
+    }
+
+    private int positionOf(int index) {
+        if (visible == null) return index + headerCount();
+        for (int i = 0; i < visible.length; i++) {
+            if (visible[i] == index) return i + headerCount();
+        }
+        return RecyclerView.NO_POSITION;
+    }
+
+    private int headerCount() {
+        return message != null ? 1 : 0;
+    }
+
+    @Override
+    public int getItemCount() {
+        return headerCount() + (visible != null ? visible.length : options.size());
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position < headerCount() ? -1 : optionAt(position);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return position < headerCount() ? TYPE_HEADER : TYPE_OPTION;
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        Context context = parent.getContext();
+        if (viewType == TYPE_HEADER) {
+            TextView messageView = new TextView(context);
+            FullScreenDialogFragment.styleMessageView(messageView, styleOptions);
+            messageView.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            messageView.setPadding(0, 0, 0, headerBottomPadding);
+            return new RecyclerView.ViewHolder(messageView) {};
+        }
+
+        CompoundButton button = selection.isMultiple() ? new CheckBox(context) : new RadioButton(context);
+        TextViewCompat.setTextAppearance(button, com.google.android.material.R.style.TextAppearance_Material3_BodyLarge);
+        // M3 list item text color: onSurface (#1D1B20)
+        button.setTextColor(ThemeTokens.of(context).onSurface);
+        int itemPadding = (int) (20 * density);
+        button.setPadding((int) (8 * density), itemPadding, 0, itemPadding);
+        button.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+
+        OptionHolder holder = new OptionHolder(button);
+        button.setOnClickListener((v) -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) return;
+            int index = optionAt(position);
+            int unchecked = selection.toggle(index);
+            // The click already flipped the button; make it match the model (a tapped radio stays checked).
+            button.setChecked(selection.isChecked(index));
+            // The previously checked option may be filtered out, in which case it has no row to rebind.
+            int uncheckedPosition = unchecked >= 0 ? positionOf(unchecked) : RecyclerView.NO_POSITION;
+            if (uncheckedPosition != RecyclerView.NO_POSITION) {
+                notifyItemChanged(uncheckedPosition, PAYLOAD_CHECKED);
+            }
+            onSelectionChanged.run();
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        if (holder instanceof OptionHolder) {
+            int index = optionAt(position);
+            CompoundButton button = ((OptionHolder) holder).button;
+            button.setText(options.label(index));
+            button.setChecked(selection.isChecked(index));
+        } else {
+            ((TextView) holder.itemView).setText(message);
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (holder instanceof OptionHolder && payloads.contains(PAYLOAD_CHECKED)) {
+            ((OptionHolder) holder).button.setChecked(selection.isChecked(optionAt(position)));
+            return;
+        }
+        onBindViewHolder(holder, position);
+    }
+
+    static final class OptionHolder extends RecyclerView.ViewHolder {
+
+        final CompoundButton button;
+
+        OptionHolder(CompoundButton button) {
+            super(button);
+            this.button = button;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.albermonte.extendeddialog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Builds the columnar {@link OptionList} of a select dialog from the {@link JSONArray} the
+ * bridge already parsed, without copying it into per-option objects. Equal strings share
+ * one instance per list (values often repeat their label). Malformed entries are left out
+ * and reported by index instead of failing the whole list.
+ */
+final class OptionListParser {
+
+    /** Parsed options plus one message per malformed entry, e.g. {@code options[3]: missing "value"}. */
+    static final class Result {
+
+        final OptionList options;
+        final List<String> errors;
+
+        Result(OptionList options, List<String> errors) {
+            this.options = options;
+            this.errors = errors;
+        }
+
+        boolean hasErrors() {
+            return !errors.isEmpty();
+        }
+
+        /** The first {@code max} errors joined for a rejection message. */
+        String describeErrors(int max) {
+            StringBuilder description = new StringBuilder();
+            for (int i = 0; i < Math.min(max, errors.size()); i++) {
+                if (i > 0) description.append("; ");
+                description.append(errors.get(i));
+            }
+            if (errors.size() > max) {
+                description.append(" (+").append(errors.size() - max).append(" more)");
+            }
+            return description.toString();
+        }
+    }
+
+    private OptionListParser() {}
+
+    static Result parse(JSONArray options) {
+        Builder builder = new Builder(options.length());
+        for (int i = 0; i < options.length(); i++) {
+            Object entry = options.opt(i);
+            if (!(entry instanceof JSONObject)) {
+                builder.error(i, "not an object");
+                continue;
+            }
+            JSONObject option = (JSONObject) entry;
+            builder.add(i, scalar(option.opt("label")), scalar(option.opt("value")));
+        }
+        return builder.build();
+    }
+
+    /** Strings, numbers and booleans become strings, as {@link JSONObject#getString} coerces them. */
+    private static String scalar(Object value) {
+        if (value instanceof String) return (String) value;
+        if (value instanceof Number || value instanceof Boolean) return String.valueOf(value);
+        return null;
+    }
+
+    private static final class Builder {
+
+        private final Map<String, String> interned = new HashMap<>();
+        private final List<String> errors = new ArrayList<>();
+        private String[] labels;
+        private String[] values;
+        private int size;
+
+        Builder(int capacity) {
+            labels = new String[Math.max(1, capacity)];
+            values = new String[labels.length];
+        }
+
+        void add(int index, String label, String value) {
+            if (label == null) {
+                error(index, "missing \"label\"");
+                return;
+            }
+            if (value == null) {
+                error(index, "missing \"value\"");
+                return;
+            }
+            if (size == labels.length) {
+                labels = Arrays.copyOf(labels, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            labels[size] = intern(label);
+            values[size] = intern(value);
+            size++;
+        }
+
+        void error(int index, String message) {
+            errors.add("options[" + index + "]: " + message);
+        }
+
+        private String intern(String text) {
+            String shared = interned.putIfAbsent(text, text);
+            return shared != null ? shared : text;
+        }
+
+        Result build() {
+            OptionList options = size == 0 ? OptionList.EMPTY : new OptionList(Arrays.copyOf(labels, size), Arrays.copyOf(values, size));
+            return new Result(options, errors);
+        }
+    }
+}
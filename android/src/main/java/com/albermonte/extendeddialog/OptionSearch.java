@@ -0,0 +1,108 @@
+package com.albermonte.extendeddialog;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.InputType;
+import android.text.TextWatcher;
+import android.view.ViewGroup;
+import android.view.inputmethod.EditorInfo;
+import android.widget.LinearLayout;
+import com.google.android.material.textfield.TextInputEditText;
+import com.google.android.material.textfield.TextInputLayout;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Filters an {@link OptionListAdapter} as the user types. The {@link OptionSearchIndex}
+ * is built and queried on a background thread; each keystroke bumps a generation counter
+ * so results for text that has since changed are dropped instead of flashing on screen.
+ */
+final class OptionSearch implements TextWatcher {
+
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    // One thread: the index is built before any query runs, and queries run in order.
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor((runnable) -> {
+        Thread thread = new Thread(runnable, "ExtendedDialog-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Search thread only. Registered option sets come back as the same list instance, so
+    // reopening one reuses its index instead of collating every label again.
+    private static final Map<OptionList, OptionSearchIndex> INDEXES = new WeakHashMap<>();
+
+    private final OptionListAdapter adapter;
+    private volatile int generation;
+
+    // Search thread only.
+    private OptionSearchIndex index;
+    private OptionSearchIndex.Result lastResult;
+
+    OptionSearch(OptionList options, OptionListAdapter adapter, Locale locale) {
+        this.adapter = adapter;
+        EXECUTOR.execute(() -> index = indexFor(options, locale));
+    }
+
+    private static OptionSearchIndex indexFor(OptionList options, Locale locale) {
+        OptionSearchIndex cached = INDEXES.get(options);
+        if (cached == null || !cached.locale().equals(locale)) {
+            cached = OptionSearchIndex.build(options, locale);
+            INDEXES.put(options, cached);
+        }
+        return cached;
+    }
+
+    /** An outlined search field wired to {@code search}, styled like the prompt input. */
+    static TextInputLayout createField(Context ctx, String hint, OptionSearch search) {
+        TextInputLayout textInputLayout = new TextInputLayout(ctx);
+        textInputLayout.setBoxBackgroundMode(TextInputLayout.BOX_BACKGROUND_OUTLINE);
+        textInputLayout.setLayoutParams(
+            new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT)
+        );
+        textInputLayout.setHint(hint != null ? hint : "Search");
+
+        TextInputEditText searchField = new TextInputEditText(textInputLayout.getContext());
+        searchField.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_NO_SUGGESTIONS);
+        searchField.setImeOptions(EditorInfo.IME_ACTION_SEARCH);
+        searchField.setSingleLine(true);
+        searchField.addTextChangedListener(search);
+        textInputLayout.addView(searchField);
+        return textInputLayout;
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+    @Override
+    public void afterTextChanged(Editable s) {
+        setQuery(s.toString());
+    }
+
+    void setQuery(String query) {
+        int requested = ++generation;
+        EXECUTOR.execute(() -> {
+            // A newer keystroke is already queued behind this one.
+            if (requested != generation) return;
+            OptionSearchIndex.Result result = index.filter(query, lastResult);
+            lastResult = result;
+            int[] visible = result != null ? result.indices : null;
+            MAIN.post(() -> {
+                if (requested == generation) adapter.setVisibleOptions(visible);
+            });
+        });
+    }
+
+    /** Drops pending results; call when the dialog goes away. */
+    void close() {
+        generation++;
+    }
+}
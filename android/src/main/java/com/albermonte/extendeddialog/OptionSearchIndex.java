@@ -0,0 +1,137 @@
+package com.albermonte.extendeddialog;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * Search index over the labels of an {@link OptionList}: case- and accent-folded labels
+ * plus the options in locale collation order. Building it is the expensive part (one
+ * {@link CollationKey} per option) and happens once, off the main thread; filtering is a
+ * linear scan over folded strings. Not thread-safe: confine an index to one thread.
+ */
+final class OptionSearchIndex {
+
+    private static final byte RANK_PREFIX = 0;
+    private static final byte RANK_WORD_PREFIX = 1;
+    private static final byte RANK_SUBSTRING = 2;
+
+    /** Matches of a query, in display order, plus the same set as a mask for refining. */
+    static final class Result {
+
+        final String query;
+        final int[] indices;
+        final BitSet matches;
+
+        Result(String query, int[] indices, BitSet matches) {
+            this.query = query;
+            this.indices = indices;
+            this.matches = matches;
+        }
+    }
+
+    private final Locale locale;
+    private final String[] folded;
+    private final int[] collated;
+    // Scratch for filter(); sized once so keystrokes don't allocate per option.
+    private final int[] matchScratch;
+    private final byte[] rankScratch;
+
+    private OptionSearchIndex(Locale locale, String[] folded, int[] collated) {
+        this.locale = locale;
+        this.folded = folded;
+        this.collated = collated;
+        this.matchScratch = new int[folded.length];
+        this.rankScratch = new byte[folded.length];
+    }
+
+    Locale locale() {
+        return locale;
+    }
+
+    static OptionSearchIndex build(OptionList options, Locale locale) {
+        int size = options.size();
+        Collator collator = Collator.getInstance(locale);
+        collator.setStrength(Collator.PRIMARY);
+        String[] folded = new String[size];
+        CollationKey[] keys = new CollationKey[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            folded[i] = fold(options.label(i), locale);
+            keys[i] = collator.getCollationKey(options.label(i));
+            order[i] = i;
+        }
+        // Ties keep the caller's order.
+        Arrays.sort(order, (a, b) -> {
+            int result = keys[a].compareTo(keys[b]);
+            return result != 0 ? result : Integer.compare(a, b);
+        });
+        int[] collated = new int[size];
+        for (int i = 0; i < size; i++) {
+            collated[i] = order[i];
+        }
+        return new OptionSearchIndex(locale, folded, collated);
+    }
+
+    /** Lower-cases and strips combining marks, so "Éire" matches "eire". */
+    static String fold(String text, Locale locale) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(locale), Normalizer.Form.NFD);
+        StringBuilder builder = null;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                if (builder == null) builder = new StringBuilder(decomposed.length()).append(decomposed, 0, i);
+            } else if (builder != null) {
+                builder.append(c);
+            }
+        }
+        return builder != null ? builder.toString() : decomposed;
+    }
+
+    /**
+     * Options whose label contains {@code query}: label prefix matches first, then word
+     * prefix matches, then other substrings, each group in collation order. When
+     * {@code previous} was for a prefix of {@code query}, only its matches are re-checked.
+     * Returns null for a blank query, meaning every option in its original order.
+     */
+    Result filter(String query, Result previous) {
+        String needle = fold(query.trim(), locale);
+        if (needle.isEmpty()) return null;
+        BitSet candidates = previous != null && needle.startsWith(previous.query) ? previous.matches : null;
+
+        int count = 0;
+        BitSet matches = new BitSet(folded.length);
+        for (int index : collated) {
+            if (candidates != null && !candidates.get(index)) continue;
+            int rank = rank(folded[index], needle);
+            if (rank < 0) continue;
+            matchScratch[count] = index;
+            rankScratch[count] = (byte) rank;
+            count++;
+            matches.set(index);
+        }
+
+        int[] indices = new int[count];
+        int next = 0;
+        for (byte rank = RANK_PREFIX; rank <= RANK_SUBSTRING; rank++) {
+            for (int i = 0; i < count; i++) {
+                if (rankScratch[i] == rank) indices[next++] = matchScratch[i];
+            }
+        }
+        return new Result(needle, indices, matches);
+    }
+
+    private static int rank(String label, String needle) {
+        int at = label.indexOf(needle);
+        if (at < 0) return -1;
+        if (at == 0) return RANK_PREFIX;
+        while (at >= 0) {
+            if (!Character.isLetterOrDigit(label.charAt(at - 1))) return RANK_WORD_PREFIX;
+            at = label.indexOf(needle, at + 1);
+        }
+        return RANK_SUBSTRING;
+    }
+}
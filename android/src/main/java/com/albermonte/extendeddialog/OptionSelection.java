@@ -0,0 +1,85 @@
+package com.albermonte.extendeddialog;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Selection state of a select dialog, held by option index rather than in views so
+ * recycled rows can be rebound from it. Single select keeps one index, multi select
+ * a {@link BitSet}.
+ */
+final class OptionSelection {
+
+    private final OptionList options;
+    private final boolean multiple;
+    private final BitSet checked;
+    private int checkedIndex = -1;
+
+    private OptionSelection(OptionList options, boolean multiple) {
+        this.options = options;
+        this.multiple = multiple;
+        this.checked = multiple ? new BitSet(options.size()) : null;
+    }
+
+    static OptionSelection single(OptionList options, String selectedValue) {
+        OptionSelection selection = new OptionSelection(options, false);
+        selection.checkedIndex = options.indexOf(selectedValue);
+        return selection;
+    }
+
+    static OptionSelection multiple(OptionList options, Iterable<String> selectedValues) {
+        OptionSelection selection = new OptionSelection(options, true);
+        Set<String> values = new HashSet<>();
+        for (String value : selectedValues) {
+            values.add(value);
+        }
+        if (values.isEmpty()) return selection;
+        // Every option carrying a preselected value starts checked, as it did with one CheckBox per option.
+        for (int i = 0; i < options.size(); i++) {
+            if (values.contains(options.value(i))) selection.checked.set(i);
+        }
+        return selection;
+    }
+
+    boolean isMultiple() {
+        return multiple;
+    }
+
+    boolean isChecked(int index) {
+        return multiple ? checked.get(index) : index == checkedIndex;
+    }
+
+    /**
+     * Applies a tap on {@code index}: toggles it in multi select, checks it in single select.
+     * Returns the index that became unchecked as a side effect, or -1.
+     */
+    int toggle(int index) {
+        if (multiple) {
+            checked.flip(index);
+            return -1;
+        }
+        int previous = checkedIndex;
+        checkedIndex = index;
+        return previous != index ? previous : -1;
+    }
+
+    boolean isEmpty() {
+        return multiple ? checked.isEmpty() : checkedIndex < 0;
+    }
+
+    /** The checked value in single select, or null. */
+    String selectedValue() {
+        return checkedIndex >= 0 ? options.value(checkedIndex) : null;
+    }
+
+    /** Checked values in option order, without duplicates. */
+    String[] selectedValues() {
+        Set<String> values = new LinkedHashSet<>();
+        for (int i = checked.nextSetBit(0); i >= 0; i = checked.nextSetBit(i + 1)) {
+            values.add(options.value(i));
+        }
+        return values.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,177 @@
+package com.albermonte.extendeddialog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Option lists registered with {@code registerOptionSet}, kept parsed so select dialogs and
+ * sheets can refer to them by id instead of sending the list across the bridge on every call.
+ * Persisted sets are also written to a compact binary file (a string table plus label and
+ * value indices) and loaded lazily the first time their id is used after a restart.
+ */
+final class OptionSetRegistry {
+
+    private static final String DIRECTORY_NAME = "extended-dialog-option-sets";
+    private static final int FILE_MAGIC = 0x45444F53; // "EDOS"
+    private static final int FILE_VERSION = 1;
+
+    private final File directory;
+    private final Map<String, OptionList> sets = new HashMap<>();
+
+    OptionSetRegistry(File filesDir) {
+        this.directory = new File(filesDir, DIRECTORY_NAME);
+    }
+
+    /**
+     * Registers {@code options} under {@code id}, replacing any earlier set. Without
+     * {@code persist}, a file left by an earlier persisted set of that id is deleted.
+     */
+    synchronized void register(String id, OptionList options, boolean persist) throws IOException {
+        sets.put(id, options);
+        File file = file(id);
+        if (!persist) {
+            deleteFile(file);
+            return;
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        // Write then rename, so a crash mid-write never leaves a truncated set behind.
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temp))) {
+            write(options, out);
+        }
+        if (!temp.renameTo(file)) {
+            deleteFile(temp);
+            throw new IOException("Cannot write " + file);
+        }
+    }
+
+    /** Forgets {@code id} in memory and on disk. Returns whether it was registered. */
+    synchronized boolean unregister(String id) {
+        boolean inMemory = sets.remove(id) != null;
+        File file = file(id);
+        boolean onDisk = file.exists();
+        deleteFile(file);
+        return inMemory || onDisk;
+    }
+
+    /** The set registered under {@code id}, loading a persisted one on first use; null if unknown. */
+    synchronized OptionList get(String id) {
+        OptionList options = sets.get(id);
+        if (options != null) return options;
+        File file = file(id);
+        if (!file.isFile()) return null;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            options = read(in);
+            sets.put(id, options);
+            return options;
+        } catch (IOException e) {
+            android.util.Log.w("ExtendedDialog", "Dropping unreadable option set " + id + ": " + e.getMessage());
+            deleteFile(file);
+            return null;
+        }
+    }
+
+    static void write(OptionList options, OutputStream out) throws IOException {
+        Map<String, Integer> table = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int[] labels = new int[options.size()];
+        int[] values = new int[options.size()];
+        for (int i = 0; i < options.size(); i++) {
+            labels[i] = slot(table, strings, options.label(i));
+            values[i] = slot(table, strings, options.value(i));
+        }
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(FILE_MAGIC);
+        data.writeInt(FILE_VERSION);
+        data.writeInt(strings.size());
+        for (String string : strings) {
+            // Length-prefixed UTF-8 rather than writeUTF, which caps strings at 64 KB.
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+        }
+        data.writeInt(options.size());
+        for (int i = 0; i < options.size(); i++) {
+            data.writeInt(labels[i]);
+            data.writeInt(values[i]);
+        }
+        data.flush();
+    }
+
+    static OptionList read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != FILE_MAGIC || data.readInt() != FILE_VERSION) {
+            throw new IOException("Unknown option set format");
+        }
+        String[] strings = new String[data.readInt()];
+        byte[] buffer = new byte[64];
+        for (int i = 0; i < strings.length; i++) {
+            int length = data.readInt();
+            if (length < 0) throw new IOException("Corrupt option set");
+            if (length > buffer.length) buffer = new byte[Math.max(length, buffer.length * 2)];
+            data.readFully(buffer, 0, length);
+            strings[i] = new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+        int size = data.readInt();
+        if (size < 0) throw new IOException("Corrupt option set");
+        String[] labels = new String[size];
+        String[] values = new String[size];
+        try {
+            for (int i = 0; i < size; i++) {
+                // Strings come back shared exactly as they were interned when parsed.
+                labels[i] = strings[data.readInt()];
+                values[i] = strings[data.readInt()];
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt option set");
+        }
+        return size == 0 ? OptionList.EMPTY : new OptionList(labels, values);
+    }
+
+    private static int slot(Map<String, Integer> table, List<String> strings, String string) {
+        Integer slot = table.get(string);
+        if (slot == null) {
+            slot = strings.size();
+            table.put(string, slot);
+            strings.add(string);
+        }
+        return slot;
+    }
+
+    /** Ids come from JS, so the file is named after a digest rather than the id itself. */
+    private File file(String id) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(id.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return new File(directory, name.toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            android.util.Log.w("ExtendedDialog", "Failed to delete " + file);
+        }
+    }
+}
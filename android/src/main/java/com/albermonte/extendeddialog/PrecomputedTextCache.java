@@ -0,0 +1,115 @@
+package com.albermonte.extendeddialog;
+
+import android.util.LruCache;
+import android.widget.TextView;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+/**
+ * Measures long dialog messages off the main thread before the dialog is shown, so
+ * the first layout only has to break lines. Results are cached by text and
+ * {@link PrecomputedTextCompat.Params} (text size, typeface, letter spacing, break
+ * strategy, ...). Precomputed text is width-independent, so one entry also serves
+ * other widths, e.g. after rotation.
+ */
+final class PrecomputedTextCache {
+
+    /** Shorter messages measure in well under a frame; not worth the thread hop. */
+    static final int MIN_LENGTH = 1000;
+
+    /** Budget in chars; measurement data is a few bytes per char on top of the text. */
+    private static final int MAX_CHARS = 256 * 1024;
+
+    private static final LruCache<Key, PrecomputedTextCompat> CACHE = new LruCache<Key, PrecomputedTextCompat>(MAX_CHARS) {
+        @Override
+        protected int sizeOf(Key key, PrecomputedTextCompat value) {
+            return Math.max(1, value.length());
+        }
+    };
+
+    static final MemoryTrimmer.Trimmable TRIMMABLE = new MemoryTrimmer.Trimmable() {
+        @Override
+        public String name() {
+            return "precomputedText";
+        }
+
+        @Override
+        public int entryCount() {
+            return CACHE.snapshot().size();
+        }
+
+        @Override
+        public long sizeBytes() {
+            return -1;
+        }
+
+        @Override
+        public void trimTo(float fraction) {
+            if (fraction <= 0f) {
+                CACHE.evictAll();
+            } else {
+                CACHE.trimToSize((int) (CACHE.size() * fraction));
+            }
+        }
+
+        @Override
+        public void shrinkBudget(int divisor) {
+            CACHE.resize(Math.max(1, CACHE.maxSize() / divisor));
+        }
+    };
+
+    private PrecomputedTextCache() {}
+
+    /**
+     * Precomputes {@code text} for text views styled like {@code styledView}, unless it is
+     * short or already cached. Blocks while measuring: call it on the bridge thread, before
+     * handing the dialog to the main thread.
+     */
+    static void precompute(TextView styledView, String text) {
+        if (text == null || text.length() < MIN_LENGTH) return;
+        PrecomputedTextCompat.Params params = TextViewCompat.getTextMetricsParams(styledView);
+        Key key = new Key(text, params);
+        if (CACHE.get(key) != null) return;
+        try {
+            CACHE.put(key, PrecomputedTextCompat.create(text, params));
+        } catch (RuntimeException e) {
+            // The dialog falls back to measuring on the main thread.
+            android.util.Log.w("ExtendedDialog", "Failed to precompute message text: " + e.getMessage());
+        }
+    }
+
+    /** Sets {@code text}, reusing a precomputed layout when one matches the view's style. */
+    static void setText(TextView textView, String text) {
+        if (text != null && text.length() >= MIN_LENGTH) {
+            PrecomputedTextCompat precomputed = CACHE.get(new Key(text, TextViewCompat.getTextMetricsParams(textView)));
+            if (precomputed != null) {
+                TextViewCompat.setPrecomputedText(textView, precomputed);
+                return;
+            }
+        }
+        textView.setText(text);
+    }
+
+    private static final class Key {
+
+        final String text;
+        final PrecomputedTextCompat.Params params;
+
+        Key(String text, PrecomputedTextCompat.Params params) {
+            this.text = text;
+            this.params = params;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) return false;
+            Key key = (Key) other;
+            return text.equals(key.text) && params.equals(key.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * text.hashCode() + params.hashCode();
+        }
+    }
+}
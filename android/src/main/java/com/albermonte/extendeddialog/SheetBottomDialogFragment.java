@@ -4,9 +4,8 @@ import android.app.Dialog;
 import android.content.Context;
 import android.content.DialogInterface;
 import android.content.res.ColorStateList;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.os.Bundle;
+import android.transition.TransitionManager;
 import android.util.TypedValue;
 import android.view.ContextThemeWrapper;
 import android.view.Gravity;
@@ -24,42 +23,43 @@ import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 import androidx.core.widget.TextViewCompat;
+import androidx.fragment.app.FragmentActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.bottomsheet.BottomSheetBehavior;
 import com.google.android.material.bottomsheet.BottomSheetDialog;
 import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
 import com.google.android.material.button.MaterialButton;
-import com.google.android.material.color.MaterialColors;
 import com.google.android.material.shape.MaterialShapeDrawable;
 import com.google.android.material.shape.ShapeAppearanceModel;
-import java.io.InputStream;
-import java.net.URL;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import java.util.List;
 
 public class SheetBottomDialogFragment extends BottomSheetDialogFragment {
 
     private static final String ARG_TITLE = "title";
     private static final String ARG_HEADER_LOGO = "headerLogo";
-    private static final String ARG_ROWS = "rows";
     private static final String ARG_MESSAGE = "message";
     private static final String ARG_CONFIRM_BUTTON = "confirmButton";
     private static final String ARG_CANCEL_BUTTON = "cancelButton";
     private static final String ARG_FULLSCREEN = "fullscreen";
     private static final String ARG_SUBTITLE = "subtitle";
     private static final String ARG_IS_MESSAGE_SHEET = "isMessageSheet";
+    private static final String ARG_SESSION_ID = "sessionId";
 
-    private static final Executor IMAGE_EXECUTOR = Executors.newCachedThreadPool();
-
+    private final ImageLoader.Group imageRequests = new ImageLoader.Group();
     private ExtendedDialog.SheetCallback sheetCallback;
     private boolean dismissed = false;
     private Context themedContext;
     private LinearLayout rootLayout;
     private ScrollView scrollView;
     private LinearLayout headerLayout;
+    private TextView titleView;
+    private TextView subtitleView;
     private LinearLayout bodyLayout;
+    private RecyclerView messageList;
+    private RecyclerView rowList;
+    private SheetRowAdapter rowAdapter;
+    private int dividerHeightPx;
     private LinearLayout buttonContainer;
     private int buttonHorizontalPaddingPx;
     private int buttonTopPaddingPx;
@@ -72,7 +72,7 @@ public class SheetBottomDialogFragment extends BottomSheetDialogFragment {
         String title,
         String subtitle,
         String headerLogo,
-        String rowsJson,
+        String sessionId,
         String confirmButton,
         String cancelButton,
         boolean fullscreen,
@@ -83,7 +83,7 @@ public class SheetBottomDialogFragment extends BottomSheetDialogFragment {
         args.putString(ARG_TITLE, title);
         args.putString(ARG_SUBTITLE, subtitle);
         args.putString(ARG_HEADER_LOGO, headerLogo);
-        args.putString(ARG_ROWS, rowsJson);
+        args.putString(ARG_SESSION_ID, sessionId);
         args.putString(ARG_CONFIRM_BUTTON, confirmButton);
         args.putString(ARG_CANCEL_BUTTON, cancelButton);
         args.putBoolean(ARG_FULLSCREEN, fullscreen);
@@ -133,6 +133,20 @@ public class SheetBottomDialogFragment extends BottomSheetDialogFragment {
         return new BottomSheetDialog(m3Context, R.style.ThemeOverlay_ExtendedDialog_BottomSheetDialog);
     }
 
+    /** Applies the message sheet text style, or the caller's overrides, to {@code messageView}. */
+    static void styleMessageView(TextView messageView, DialogStyleOptions styleOptions) {
+        messageView.setLineSpacing(0, 1.2f);
+        TextViewCompat.setTextAppearance(messageView, com.google.android.material.R.style.TextAppearance_Material3_BodyLarge);
+        if (styleOptions.getMessageColor() != null) {
+            messageView.setTextColor(styleOptions.getMessageColor());
+        } else {
+            messageView.setTextColor(ThemeTokens.of(messageView.getContext()).onSurfaceVariant);
+        }
+        if (styleOptions.getMessageFontSize() != null) {
+            messageView.setTextSize(TypedValue.COMPLEX_UNIT_SP, styleOptions.getMessageFontSize());
+        }
+    }
+
     private Context getThemedContext() {
         if (themedContext == null) {
             themedContext = new ContextThemeWrapper(requireContext(), com.google.android.material.R.style.Theme_Material3_DayNight_Dialog);
@@ -152,15 +166,24 @@ public class SheetBottomDialogFragment extends BottomSheetDialogFragment {
         String title = args.getString(ARG_TITLE, "");
         String subtitle = args.getString(ARG_SUBTITLE);
         String headerLogo = args.getString(ARG_HEADER_LOGO);
-        String rowsJson = args.getString(ARG_ROWS);
         String message = args.getString(ARG_MESSAGE, "");
         String confirmButton = args.getString(ARG_CONFIRM_BUTTON, "Confirm");
         String cancelButton = args.getString(ARG_CANCEL_BUTTON, "Cancel");
         boolean fullscreen = args.getBoolean(ARG_FULLSCREEN, false);
         boolean isMessageSheet = args.getBoolean(ARG_IS_MESSAGE_SHEET, false);
         DialogStyleOptions styleOptions = DialogStyleOptions.readFromBundle(args);
+        DialogPayloadStore.Rows rowsPayload = null;
+        if (!isMessageSheet) {
+            rowsPayload = DialogPayloadStore.of(requireActivity()).get(args.getString(ARG_SESSION_ID), DialogPayloadStore.Rows.class);
+            if (rowsPayload == null) {
+                // Recreated after process death: the rows and the call waiting on them are gone
+                dismiss();
+                return null;
+            }
+        }
 
         Context ctx = getThemedContext();
+        ThemeTokens tokens = ThemeTokens.of(ctx);
         float density = getResources().getDisplayMetrics().density;
         int screenHeight = getResources().getDisplayMetrics().heightPixels;
         int initialRootHeight = fullscreen ? screenHeight : (int) (screenHeight * 0.5f);
@@ -194,12 +217,7 @@ public class SheetBottomDialogFragment extends BottomSheetDialogFragment {
             handleParams.topMargin = (int) (16 * density);
             handleParams.bottomMargin = (int) (8 * density);
             dragHandle.setLayoutParams(handleParams);
-            int outlineVariantColor = MaterialColors.getColor(ctx, android.R.attr.textColorSecondary, 0xFFCAC4D0);
-            android.graphics.drawable.GradientDrawable handleDrawable = new android.graphics.drawable.GradientDrawable();
-            handleDrawable.setShape(android.graphics.drawable.GradientDrawable.RECTANGLE);
-            handleDrawable.setCornerRadius(handleHeight / 2f);
-            handleDrawable.setColor(outlineVariantColor);
-            dragHandle.setBackground(handleDrawable);
+            dragHandle.setBackground(tokens.dragHandle(handleHeight / 2f));
             rootLayout.addView(dragHandle);
         }
 
@@ -243,59 +261,65 @@ public class SheetBottomDialogFragment extends BottomSheetDialogFragment {
             }
 
             headerLayout.addView(logoView);
-            loadImageAsync(logoView, headerLogo);
+            ImageLoader.load(imageRequests, logoView, headerLogo, ImageLoader.PRIORITY_HEADER);
         }
 
         // Title
-        if (title != null && !title.isEmpty()) {
-            TextView titleView = new TextView(ctx);
-            titleView.setText(title);
-            TextViewCompat.setTextAppearance(titleView, com.google.android.material.R.style.TextAppearance_Material3_HeadlineSmall);
-            if (styleOptions.getTitleColor() != null) {
-                titleView.setTextColor(styleOptions.getTitleColor());
-            } else {
-                int onSurfaceColor = MaterialColors.getColor(ctx, android.R.attr.textColorPrimary, 0xFF1D1B20);
-                titleView.setTextColor(onSurfaceColor);
-            }
-            if (styleOptions.getTitleFontSize() != null) {
-                titleView.setTextSize(TypedValue.COMPLEX_UNIT_SP, styleOptions.getTitleFontSize());
-            }
-            titleView.setGravity(Gravity.CENTER);
-            LinearLayout.LayoutParams titleParams = new LinearLayout.LayoutParams(
-                LinearLayout.LayoutParams.MATCH_PARENT,
-                LinearLayout.LayoutParams.WRAP_CONTENT
-            );
-            titleParams.bottomMargin = (subtitle != null && !subtitle.isEmpty()) ? (int) (4 * density) : (int) (20 * density);
-            titleView.setLayoutParams(titleParams);
-            headerLayout.addView(titleView);
+        titleView = new TextView(ctx);
+        TextViewCompat.setTextAppearance(titleView, com.google.android.material.R.style.TextAppearance_Material3_HeadlineSmall);
+        if (styleOptions.getTitleColor() != null) {
+            titleView.setTextColor(styleOptions.getTitleColor());
+        } else {
+            titleView.setTextColor(tokens.onSurface);
+        }
+        if (styleOptions.getTitleFontSize() != null) {
+            titleView.setTextSize(TypedValue.COMPLEX_UNIT_SP, styleOptions.getTitleFontSize());
         }
+        titleView.setGravity(Gravity.CENTER);
+        titleView.setLayoutParams(new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT));
+        headerLayout.addView(titleView);
 
         // Subtitle
-        if (subtitle != null && !subtitle.isEmpty()) {
-            TextView subtitleView = new TextView(ctx);
-            subtitleView.setText(subtitle);
-            TextViewCompat.setTextAppearance(subtitleView, com.google.android.material.R.style.TextAppearance_Material3_BodyMedium);
-            if (styleOptions.getMessageColor() != null) {
-                subtitleView.setTextColor(styleOptions.getMessageColor());
-            } else {
-                int secondaryColor = MaterialColors.getColor(ctx, android.R.attr.textColorSecondary, 0xFF49454F);
-                subtitleView.setTextColor(secondaryColor);
-            }
-            if (styleOptions.getMessageFontSize() != null) {
-                subtitleView.setTextSize(TypedValue.COMPLEX_UNIT_SP, styleOptions.getMessageFontSize());
-            }
-            subtitleView.setGravity(Gravity.CENTER);
-            LinearLayout.LayoutParams subtitleParams = new LinearLayout.LayoutParams(
-                LinearLayout.LayoutParams.MATCH_PARENT,
-                LinearLayout.LayoutParams.WRAP_CONTENT
-            );
-            subtitleParams.bottomMargin = (int) (20 * density);
-            subtitleView.setLayoutParams(subtitleParams);
-            headerLayout.addView(subtitleView);
+        subtitleView = new TextView(ctx);
+        TextViewCompat.setTextAppearance(subtitleView, com.google.android.material.R.style.TextAppearance_Material3_BodyMedium);
+        if (styleOptions.getMessageColor() != null) {
+            subtitleView.setTextColor(styleOptions.getMessageColor());
+        } else {
+            subtitleView.setTextColor(tokens.onSurfaceVariant);
+        }
+        if (styleOptions.getMessageFontSize() != null) {
+            subtitleView.setTextSize(TypedValue.COMPLEX_UNIT_SP, styleOptions.getMessageFontSize());
         }
+        subtitleView.setGravity(Gravity.CENTER);
+        LinearLayout.LayoutParams subtitleParams = new LinearLayout.LayoutParams(
+            LinearLayout.LayoutParams.MATCH_PARENT,
+            LinearLayout.LayoutParams.WRAP_CONTENT
+        );
+        subtitleParams.bottomMargin = (int) (20 * density);
+        subtitleView.setLayoutParams(subtitleParams);
+        headerLayout.addView(subtitleView);
+        applyHeaderText(title, subtitle);
         rootLayout.addView(headerLayout);
 
-        // ScrollView for body content (rows/message only)
+        // Rows: recycled, so only the visible rows are ever inflated
+        if (!isMessageSheet) {
+            List<SheetRow> rows = rowsPayload.rows;
+            dividerHeightPx = (int) (1 * density);
+            rowAdapter = new SheetRowAdapter(rows, styleOptions, imageRequests, density);
+            rowList = new RecyclerView(ctx);
+            rowList.setLayoutManager(new LinearLayoutManager(ctx));
+            rowList.setHasFixedSize(true);
+            rowList.setAdapter(rowAdapter);
+            rowList.addItemDecoration(
+                new SheetRowAdapter.DividerDecoration(tokens.divider, dividerHeightPx)
+            );
+            rowList.setPadding(horizontalPadding, 0, horizontalPadding, verticalPadding);
+            rowList.setClipToPadding(false);
+            rowList.setLayoutParams(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 0, 1f));
+            rootLayout.addView(rowList);
+        }
+
+        // ScrollView for body content (message sheet only)
         scrollView = new ScrollView(ctx);
         scrollView.setFillViewport(true);
         scrollView.setLayoutParams(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 0, 1f));
@@ -304,32 +328,31 @@ public class SheetBottomDialogFragment extends BottomSheetDialogFragment {
         bodyLayout.setOrientation(LinearLayout.VERTICAL);
         bodyLayout.setPadding(horizontalPadding, 0, horizontalPadding, verticalPadding);
 
-        // Message (for message sheet)
-        if (isMessageSheet && message != null && !message.isEmpty()) {
+        // Very long messages: recycled chunks in a card that scrolls on its own, so only the visible text is laid out
+        if (isMessageSheet && MessageChunker.shouldChunk(message)) {
+            int messagePadding = (int) (16 * density);
+            messageList = new RecyclerView(ctx);
+            messageList.setLayoutManager(new LinearLayoutManager(ctx));
+            messageList.setAdapter(new MessageChunkAdapter(MessageChunker.split(message, MessageChunker.CHUNK_LENGTH), styleOptions));
+            messageList.setBackground(tokens.messageBackground(12 * density));
+            messageList.setPadding(messagePadding, messagePadding, messagePadding, messagePadding);
+            messageList.setClipToPadding(false);
+            LinearLayout.LayoutParams messageListParams = new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 0, 1f);
+            messageListParams.setMargins(horizontalPadding, 0, horizontalPadding, verticalPadding + (int) (24 * density));
+            messageList.setLayoutParams(messageListParams);
+            rootLayout.addView(messageList);
+        } else if (isMessageSheet && message != null && !message.isEmpty()) {
             LinearLayout messageContainer = new LinearLayout(ctx);
             messageContainer.setOrientation(LinearLayout.VERTICAL);
             int messagePadding = (int) (16 * density);
             messageContainer.setPadding(messagePadding, messagePadding, messagePadding, messagePadding);
 
-            ShapeAppearanceModel messageShape = ShapeAppearanceModel.builder().setAllCornerSizes(12 * density).build();
-            MaterialShapeDrawable messageBackground = new MaterialShapeDrawable(messageShape);
-            int surfaceVariant = MaterialColors.getColor(ctx, com.google.android.material.R.attr.colorSurfaceVariant, 0xFFE7E0EC);
-            messageBackground.setFillColor(ColorStateList.valueOf(surfaceVariant));
-            messageContainer.setBackground(messageBackground);
+            messageContainer.setBackground(tokens.messageBackground(12 * density));
 
             TextView messageView = new TextView(ctx);
-            messageView.setText(message);
-            messageView.setLineSpacing(0, 1.2f);
-            TextViewCompat.setTextAppearance(messageView, com.google.android.material.R.style.TextAppearance_Material3_BodyLarge);
-            if (styleOptions.getMessageColor() != null) {
-                messageView.setTextColor(styleOptions.getMessageColor());
-            } else {
-                int onSurfaceVariantColor = MaterialColors.getColor(ctx, android.R.attr.textColorSecondary, 0xFF49454F);
-                messageView.setTextColor(onSurfaceVariantColor);
-            }
-            if (styleOptions.getMessageFontSize() != null) {
-                messageView.setTextSize(TypedValue.COMPLEX_UNIT_SP, styleOptions.getMessageFontSize());
-            }
+            styleMessageView(messageView, styleOptions);
+            // Long messages were measured off the main thread before the sheet was shown
+            PrecomputedTextCache.setText(messageView, message);
             messageContainer.addView(messageView);
 
             LinearLayout.LayoutParams messageParams = new LinearLayout.LayoutParams(
@@ -341,23 +364,11 @@ public class SheetBottomDialogFragment extends BottomSheetDialogFragment {
             bodyLayout.addView(messageContainer);
         }
 
-        // Rows
-        if (!isMessageSheet && rowsJson != null) {
-            try {
-                JSONArray rows = new JSONArray(rowsJson);
-                for (int i = 0; i < rows.length(); i++) {
-                    JSONObject row = rows.getJSONObject(i);
-                    LinearLayout rowLayout = createSheetRow(ctx, row, styleOptions, density, i < rows.length() - 1);
-                    bodyLayout.addView(rowLayout);
-                }
-            } catch (JSONException e) {
-                // Handle error
-            }
+        if (isMessageSheet && messageList == null) {
+            scrollView.addView(bodyLayout);
+            rootLayout.addView(scrollView);
         }
 
-        scrollView.addView(bodyLayout);
-        rootLayout.addView(scrollView);
-
         // Button container pinned at bottom
         buttonContainer = new LinearLayout(ctx);
         buttonContainer.setOrientation(LinearLayout.VERTICAL);
@@ -386,7 +397,7 @@ public class SheetBottomDialogFragment extends BottomSheetDialogFragment {
         });
         ViewCompat.requestApplyInsets(buttonContainer);
 
-        int primaryColor = MaterialColors.getColor(ctx, android.R.attr.colorPrimary, 0xFF6750A4);
+        int primaryColor = ThemeTokens.of(ctx).primary;
 
         // M3 Expressive L-size button: 48dp height, 24dp horizontal padding
         int buttonHeight = (int) (48 * density);
@@ -450,6 +461,61 @@ public class SheetBottomDialogFragment extends BottomSheetDialogFragment {
         return rootLayout;
     }
 
+    /**
+     * Updates the open sheet in place. Null arguments are left as they are; an empty
+     * {@code subtitle} removes it. Rows are diffed against the current ones so only the
+     * rows that changed are rebound. Main thread only.
+     */
+    void update(@Nullable List<SheetRow> rows, @Nullable String title, @Nullable String subtitle) {
+        Bundle args = getArguments();
+        if (args == null) return;
+        // Arguments and the payload store outlive the views, so a recreated sheet shows the update too
+        if (title != null) args.putString(ARG_TITLE, title);
+        if (subtitle != null) args.putString(ARG_SUBTITLE, subtitle);
+        if (rows != null) {
+            DialogPayloadStore.Rows payload = DialogPayloadStore.of(requireActivity()).get(args.getString(ARG_SESSION_ID), DialogPayloadStore.Rows.class);
+            if (payload != null) payload.rows = rows;
+        }
+        if (rootLayout == null) return;
+        if (title != null || subtitle != null) {
+            TransitionManager.beginDelayedTransition(headerLayout);
+            applyHeaderText(args.getString(ARG_TITLE, ""), args.getString(ARG_SUBTITLE));
+        }
+        if (rows != null && rowAdapter != null) {
+            rowAdapter.setRows(rows);
+        }
+    }
+
+    private void applyHeaderText(String title, String subtitle) {
+        float density = getResources().getDisplayMetrics().density;
+        boolean hasTitle = title != null && !title.isEmpty();
+        boolean hasSubtitle = subtitle != null && !subtitle.isEmpty();
+        titleView.setText(title);
+        titleView.setVisibility(hasTitle ? View.VISIBLE : View.GONE);
+        LinearLayout.LayoutParams titleParams = (LinearLayout.LayoutParams) titleView.getLayoutParams();
+        titleParams.bottomMargin = hasSubtitle ? (int) (4 * density) : (int) (20 * density);
+        titleView.setLayoutParams(titleParams);
+        subtitleView.setText(subtitle);
+        subtitleView.setVisibility(hasSubtitle ? View.VISIBLE : View.GONE);
+    }
+
+    @Override
+    public void onDestroyView() {
+        imageRequests.cancelAll();
+        super.onDestroyView();
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        // Keep the payload across configuration changes; the recreated fragment picks it up
+        Bundle args = getArguments();
+        FragmentActivity activity = getActivity();
+        if (args != null && args.getString(ARG_SESSION_ID) != null && activity != null && !activity.isChangingConfigurations()) {
+            DialogPayloadStore.of(activity).remove(args.getString(ARG_SESSION_ID));
+        }
+    }
+
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
@@ -539,12 +605,6 @@ public class SheetBottomDialogFragment extends BottomSheetDialogFragment {
                         headerHeight = headerLayout.getMeasuredHeight();
                     }
 
-                    int bodyHeight = 0;
-                    if (bodyLayout != null) {
-                        bodyLayout.measure(widthSpec, heightSpec);
-                        bodyHeight = bodyLayout.getMeasuredHeight();
-                    }
-
                     int btnHeight = 0;
                     if (buttonContainer != null) {
                         buttonContainer.measure(widthSpec, heightSpec);
@@ -555,6 +615,23 @@ public class SheetBottomDialogFragment extends BottomSheetDialogFragment {
                     float density = getResources().getDisplayMetrics().density;
                     int dragHandleHeight = (int) (28 * density);
 
+                    int bodyHeight = 0;
+                    if (rowAdapter != null) {
+                        // Only measure rows until the sheet would hit its 80% cap.
+                        int rowWidth = Math.max(0, width - rowList.getPaddingLeft() - rowList.getPaddingRight());
+                        int rowWidthSpec = View.MeasureSpec.makeMeasureSpec(rowWidth, View.MeasureSpec.EXACTLY);
+                        int maxHeight = clampInitialSheetHeight(screenHeight, Integer.MAX_VALUE);
+                        int rowBudget = maxHeight - headerHeight - btnHeight - dragHandleHeight;
+                        bodyHeight =
+                            rowList.getPaddingBottom() + rowAdapter.measureRowsHeight(rowList, rowWidthSpec, dividerHeightPx, rowBudget);
+                    } else if (messageList != null) {
+                        // Chunked messages always fill the 80% cap; measuring them would lay out every chunk.
+                        bodyHeight = screenHeight;
+                    } else if (bodyLayout != null) {
+                        bodyLayout.measure(widthSpec, heightSpec);
+                        bodyHeight = bodyLayout.getMeasuredHeight();
+                    }
+
                     int contentRequiredHeight = headerHeight + bodyHeight + btnHeight + dragHandleHeight;
                     int desiredHeight = clampInitialSheetHeight(screenHeight, contentRequiredHeight);
                     float ratio = calculateHalfExpandedRatio(screenHeight, desiredHeight);
@@ -624,115 +701,6 @@ public class SheetBottomDialogFragment extends BottomSheetDialogFragment {
         buttonContainer.setPadding(buttonHorizontalPaddingPx, buttonTopPaddingPx, buttonHorizontalPaddingPx, resolvedBottomPadding);
     }
 
-    private LinearLayout createSheetRow(
-        Context context,
-        JSONObject row,
-        DialogStyleOptions styleOptions,
-        float density,
-        boolean showDivider
-    ) throws JSONException {
-        LinearLayout rowLayout = new LinearLayout(context);
-        rowLayout.setOrientation(LinearLayout.HORIZONTAL);
-        rowLayout.setGravity(Gravity.CENTER_VERTICAL);
-        LinearLayout.LayoutParams rowParams = new LinearLayout.LayoutParams(
-            LinearLayout.LayoutParams.MATCH_PARENT,
-            LinearLayout.LayoutParams.WRAP_CONTENT
-        );
-        rowLayout.setLayoutParams(rowParams);
-        rowLayout.setPadding(0, (int) (8 * density), 0, (int) (8 * density));
-
-        // Row logo
-        if (row.has("logo") && !row.getString("logo").isEmpty()) {
-            ImageView rowLogoView = new ImageView(context);
-            int logoSize = (int) (24 * density);
-            LinearLayout.LayoutParams logoParams = new LinearLayout.LayoutParams(logoSize, logoSize);
-            logoParams.rightMargin = (int) (12 * density);
-            rowLogoView.setLayoutParams(logoParams);
-            rowLayout.addView(rowLogoView);
-            loadImageAsync(rowLogoView, row.getString("logo"));
-        }
-
-        // Row title
-        TextView rowTitle = new TextView(context);
-        rowTitle.setText(row.getString("title"));
-        TextViewCompat.setTextAppearance(rowTitle, com.google.android.material.R.style.TextAppearance_Material3_TitleMedium);
-        if (styleOptions.getMessageColor() != null) {
-            rowTitle.setTextColor(styleOptions.getMessageColor());
-        } else {
-            int onSurfaceColor = MaterialColors.getColor(context, android.R.attr.textColorPrimary, 0xFF1D1B20);
-            rowTitle.setTextColor(onSurfaceColor);
-        }
-        if (styleOptions.getMessageFontSize() != null) {
-            rowTitle.setTextSize(TypedValue.COMPLEX_UNIT_SP, styleOptions.getMessageFontSize());
-        }
-        LinearLayout.LayoutParams titleParams = new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.WRAP_CONTENT, 1f);
-        rowTitle.setLayoutParams(titleParams);
-        rowLayout.addView(rowTitle);
-
-        // Row value
-        if (row.has("value") && !row.getString("value").isEmpty()) {
-            TextView rowValue = new TextView(context);
-            rowValue.setText(row.getString("value"));
-            TextViewCompat.setTextAppearance(rowValue, com.google.android.material.R.style.TextAppearance_Material3_BodyLarge);
-            int onSurfaceVariantColor = MaterialColors.getColor(context, android.R.attr.textColorSecondary, 0xFF49454F);
-            rowValue.setTextColor(onSurfaceVariantColor);
-            rowValue.setGravity(Gravity.END);
-            if (styleOptions.getMessageFontSize() != null) {
-                rowValue.setTextSize(TypedValue.COMPLEX_UNIT_SP, styleOptions.getMessageFontSize());
-            }
-            rowValue.setEllipsize(android.text.TextUtils.TruncateAt.END);
-            rowValue.setMaxLines(2);
-            LinearLayout.LayoutParams valueParams = new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.WRAP_CONTENT, 1f);
-            rowValue.setLayoutParams(valueParams);
-            rowLayout.addView(rowValue);
-        }
-
-        // Wrap in container with optional divider
-        LinearLayout container = new LinearLayout(context);
-        container.setOrientation(LinearLayout.VERTICAL);
-        container.addView(rowLayout);
-
-        if (showDivider) {
-            View divider = new View(context);
-            divider.setBackgroundColor(MaterialColors.getColor(context, android.R.attr.listDivider, 0xFFE0E0E0));
-            LinearLayout.LayoutParams dividerParams = new LinearLayout.LayoutParams(
-                LinearLayout.LayoutParams.MATCH_PARENT,
-                (int) (1 * density)
-            );
-            divider.setLayoutParams(dividerParams);
-            container.addView(divider);
-        }
-
-        return container;
-    }
-
-    private void loadImageAsync(ImageView imageView, String imageUrl) {
-        if (imageUrl == null || imageUrl.isEmpty()) return;
-        IMAGE_EXECUTOR.execute(() -> {
-            try {
-                Bitmap bitmap = decodeImage(imageUrl, imageView);
-                if (bitmap != null) {
-                    imageView.post(() -> imageView.setImageBitmap(bitmap));
-                }
-            } catch (Exception e) {
-                android.util.Log.w("ExtendedDialog", "Failed to load image: " + e.getMessage());
-            }
-        });
-    }
-
-    private static Bitmap decodeImage(String imageUrl, ImageView imageView) throws Exception {
-        if (SvgImageLoader.isSvgSource(imageUrl)) {
-            return SvgImageLoader.render(imageUrl, imageView);
-        }
-        if (SvgImageLoader.isDataUrl(imageUrl)) {
-            byte[] decodedBytes = SvgImageLoader.decodeDataUrl(imageUrl);
-            return BitmapFactory.decodeByteArray(decodedBytes, 0, decodedBytes.length);
-        }
-        try (InputStream inputStream = new URL(imageUrl).openStream()) {
-            return BitmapFactory.decodeStream(inputStream);
-        }
-    }
-
     private void handleConfirm() {
         if (dismissed) return;
         dismissed = true;
@@ -741,6 +709,12 @@ public class SheetBottomDialogFragment extends BottomSheetDialogFragment {
         }
     }
 
+    /** Dismisses the sheet as if the user had cancelled it. */
+    void cancel() {
+        handleCancel();
+        dismissAllowingStateLoss();
+    }
+
     private void handleCancel() {
         if (dismissed) return;
         dismissed = true;
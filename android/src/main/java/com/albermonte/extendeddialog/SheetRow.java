@@ -0,0 +1,74 @@
+package com.albermonte.extendeddialog;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/** One line of a sheet: title, optional trailing value and optional leading logo. */
+final class SheetRow {
+
+    /** Identifies the row across {@code updateSheet} calls; null when the title does. */
+    final String id;
+    final String title;
+    /** Null when the row has no value. */
+    final String value;
+    /** Null when the row has no logo. */
+    final String logo;
+
+    SheetRow(String title, String value, String logo) {
+        this(null, title, value, logo);
+    }
+
+    SheetRow(String id, String title, String value, String logo) {
+        this.id = id;
+        this.title = title;
+        this.value = value;
+        this.logo = logo;
+    }
+
+    boolean hasLogo() {
+        return logo != null;
+    }
+
+    /** What a live update matches rows on: the id, or the title for rows without one. */
+    String key() {
+        return id != null ? id : title;
+    }
+
+    /**
+     * Parses the {@code rows} option; empty {@code id}/{@code value}/{@code logo} strings count as absent.
+     * A malformed row fails the parse with its index in the message.
+     */
+    static List<SheetRow> fromJson(JSONArray rows) throws JSONException {
+        List<SheetRow> parsed = new ArrayList<>(rows.length());
+        for (int i = 0; i < rows.length(); i++) {
+            try {
+                JSONObject row = rows.getJSONObject(i);
+                parsed.add(
+                    new SheetRow(optionalString(row, "id"), row.getString("title"), optionalString(row, "value"), optionalString(row, "logo"))
+                );
+            } catch (JSONException e) {
+                throw new JSONException("rows[" + i + "]: " + e.getMessage());
+            }
+        }
+        return parsed;
+    }
+
+    /** Rows for a registered option set: the label as title, the value on the right and as id. */
+    static List<SheetRow> fromOptions(OptionList options) {
+        List<SheetRow> rows = new ArrayList<>(options.size());
+        for (int i = 0; i < options.size(); i++) {
+            String value = options.value(i).isEmpty() ? null : options.value(i);
+            rows.add(new SheetRow(value, options.label(i), value, null));
+        }
+        return rows;
+    }
+
+    private static String optionalString(JSONObject row, String key) throws JSONException {
+        if (!row.has(key) || row.isNull(key)) return null;
+        String value = row.getString(key);
+        return value.isEmpty() ? null : value;
+    }
+}
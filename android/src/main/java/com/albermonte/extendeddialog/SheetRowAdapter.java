@@ -0,0 +1,172 @@
+package com.albermonte.extendeddialog;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Binds {@link SheetRow}s into recycled {@link SheetRowView}s, which draw the logo,
+ * title and value themselves.
+ */
+final class SheetRowAdapter extends RecyclerView.Adapter<SheetRowAdapter.RowHolder> {
+
+    private List<SheetRow> rows;
+    private final DialogStyleOptions styleOptions;
+    private final ImageLoader.Group imageRequests;
+    private final float density;
+    private SheetRowView.Style rowStyle;
+
+    SheetRowAdapter(List<SheetRow> rows, DialogStyleOptions styleOptions, ImageLoader.Group imageRequests, float density) {
+        this.rows = rows;
+        this.styleOptions = styleOptions;
+        this.imageRequests = imageRequests;
+        this.density = density;
+    }
+
+    /**
+     * Replaces the rows with {@code newRows}, notifying only the rows that were inserted,
+     * removed, moved or changed so unchanged rows keep their views and logos and the
+     * item animator animates the difference.
+     */
+    void setRows(List<SheetRow> newRows) {
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new RowDiff(rows, newRows), true);
+        rows = newRows;
+        diff.dispatchUpdatesTo(this);
+    }
+
+    @Override
+    public int getItemCount() {
+        return rows.size();
+    }
+
+    @NonNull
+    @Override
+    public RowHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        Context context = parent.getContext();
+        if (rowStyle == null) {
+            rowStyle = new SheetRowView.Style(context, styleOptions, density);
+        }
+        SheetRowView rowView = new SheetRowView(context, rowStyle);
+        rowView.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        return new RowHolder(rowView);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RowHolder holder, int position) {
+        SheetRow row = rows.get(position);
+        holder.rowView.bind(row);
+        // Rows are laid out top-down, so earlier rows are the ones on screen first.
+        // A row without a logo still goes through load() so a recycled view drops its old one.
+        ImageLoader.load(imageRequests, holder.rowView, row.logo, ImageLoader.PRIORITY_ROW + position);
+    }
+
+    /**
+     * Measures rows top-down with one scratch row view and stops once {@code limit} is
+     * reached, so sizing the sheet costs the visible rows, not all of them.
+     */
+    int measureRowsHeight(ViewGroup parent, int widthSpec, int dividerHeight, int limit) {
+        int heightSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        RowHolder scratch = null;
+        int total = 0;
+        for (int position = 0; position < rows.size() && total < limit; position++) {
+            if (scratch == null) {
+                scratch = onCreateViewHolder(parent, 0);
+            }
+            scratch.rowView.bind(rows.get(position));
+            scratch.itemView.measure(widthSpec, heightSpec);
+            total += scratch.itemView.getMeasuredHeight();
+            if (position < rows.size() - 1) {
+                total += dividerHeight;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Rows are matched on {@link SheetRow#key()}, so a row whose title, value or logo changes
+     * is updated in place; rows sharing a title need an id to be told apart.
+     */
+    static final class RowDiff extends DiffUtil.Callback {
+
+        private final List<SheetRow> oldRows;
+        private final List<SheetRow> newRows;
+
+        RowDiff(List<SheetRow> oldRows, List<SheetRow> newRows) {
+            this.oldRows = oldRows;
+            this.newRows = newRows;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldRows.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newRows.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return oldRows.get(oldPosition).key().equals(newRows.get(newPosition).key());
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            SheetRow oldRow = oldRows.get(oldPosition);
+            SheetRow newRow = newRows.get(newPosition);
+            return oldRow.title.equals(newRow.title) && Objects.equals(oldRow.value, newRow.value) && Objects.equals(oldRow.logo, newRow.logo);
+        }
+    }
+
+    static final class RowHolder extends RecyclerView.ViewHolder {
+
+        final SheetRowView rowView;
+
+        RowHolder(SheetRowView rowView) {
+            super(rowView);
+            this.rowView = rowView;
+        }
+    }
+
+    /** Draws a hairline below every row except the last, replacing per-row divider views. */
+    static final class DividerDecoration extends RecyclerView.ItemDecoration {
+
+        private final Paint paint = new Paint();
+        private final int height;
+
+        DividerDecoration(int color, int height) {
+            paint.setColor(color);
+            this.height = height;
+        }
+
+        @Override
+        public void getItemOffsets(@NonNull Rect outRect, @NonNull View view, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+            int position = parent.getChildAdapterPosition(view);
+            if (position != RecyclerView.NO_POSITION && position < state.getItemCount() - 1) {
+                outRect.set(0, 0, 0, height);
+            } else {
+                outRect.setEmpty();
+            }
+        }
+
+        @Override
+        public void onDraw(@NonNull Canvas canvas, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+            int last = state.getItemCount() - 1;
+            for (int i = 0; i < parent.getChildCount(); i++) {
+                View child = parent.getChildAt(i);
+                if (parent.getChildAdapterPosition(child) >= last) continue;
+                float top = child.getBottom() + child.getTranslationY();
+                canvas.drawRect(child.getLeft(), top, child.getRight(), top + height, paint);
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.albermonte.extendeddialog;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.TypedValue;
+import android.view.View;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.core.widget.TextViewCompat;
+
+/**
+ * One sheet row drawn as a single view: optional 24dp logo, title, and a trailing value
+ * ellipsized to two lines. Lays out like the LinearLayout it replaces (logo, then title and
+ * value splitting the remaining width evenly, all centered vertically) but measures with
+ * two {@link StaticLayout}s that are kept until the text or width changes.
+ */
+final class SheetRowView extends View implements ImageLoader.Target {
+
+    /** Paints and metrics shared by every row of a sheet. */
+    static final class Style {
+
+        final TextPaint titlePaint;
+        final TextPaint valuePaint;
+        final int breakStrategy;
+        final int hyphenationFrequency;
+        final int logoSize;
+        final int logoGap;
+        final int verticalPadding;
+
+        Style(Context context, DialogStyleOptions styleOptions, float density) {
+            ThemeTokens tokens = ThemeTokens.of(context);
+            // Resolve the text appearances through a TextView once, exactly as the row TextViews did.
+            TextView title = new TextView(context);
+            TextViewCompat.setTextAppearance(title, com.google.android.material.R.style.TextAppearance_Material3_TitleMedium);
+            title.setTextColor(styleOptions.getMessageColor() != null ? styleOptions.getMessageColor() : tokens.onSurface);
+            TextView value = new TextView(context);
+            TextViewCompat.setTextAppearance(value, com.google.android.material.R.style.TextAppearance_Material3_BodyLarge);
+            value.setTextColor(tokens.onSurfaceVariant);
+            if (styleOptions.getMessageFontSize() != null) {
+                title.setTextSize(TypedValue.COMPLEX_UNIT_SP, styleOptions.getMessageFontSize());
+                value.setTextSize(TypedValue.COMPLEX_UNIT_SP, styleOptions.getMessageFontSize());
+            }
+            titlePaint = new TextPaint(title.getPaint());
+            titlePaint.setColor(title.getCurrentTextColor());
+            valuePaint = new TextPaint(value.getPaint());
+            valuePaint.setColor(value.getCurrentTextColor());
+            breakStrategy = title.getBreakStrategy();
+            hyphenationFrequency = title.getHyphenationFrequency();
+            logoSize = (int) (24 * density);
+            logoGap = (int) (12 * density);
+            verticalPadding = (int) (8 * density);
+        }
+    }
+
+    private static final int VALUE_MAX_LINES = 2;
+
+    private final Style style;
+    private CharSequence title = "";
+    private CharSequence value;
+    private boolean hasLogo;
+    private Drawable logo;
+
+    private StaticLayout titleLayout;
+    private StaticLayout valueLayout;
+    private int layoutWidth = -1;
+
+    SheetRowView(Context context, Style style) {
+        super(context);
+        this.style = style;
+        setPadding(0, style.verticalPadding, 0, style.verticalPadding);
+    }
+
+    void bind(SheetRow row) {
+        boolean changed = !TextUtils.equals(title, row.title) || !TextUtils.equals(value, row.value) || hasLogo != row.hasLogo();
+        title = row.title;
+        value = row.value;
+        hasLogo = row.hasLogo();
+        setContentDescription(value != null ? title + ", " + value : title);
+        if (changed) {
+            layoutWidth = -1;
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    @Override
+    public int getTargetWidth() {
+        return style.logoSize;
+    }
+
+    @Override
+    public int getTargetHeight() {
+        return style.logoSize;
+    }
+
+    @Override
+    public void setImageBitmap(Bitmap bitmap) {
+        setImageDrawable(new BitmapDrawable(getResources(), bitmap));
+    }
+
+    @Override
+    public void setImageDrawable(Drawable drawable) {
+        if (logo == drawable) return;
+        if (logo != null) logo.setCallback(null);
+        logo = drawable;
+        if (logo != null) logo.setCallback(this);
+        invalidate();
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return who == logo || super.verifyDrawable(who);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        if (MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED) {
+            width = getPaddingLeft() + getPaddingRight() + logoSpace() + desiredTextWidth();
+        }
+        buildLayouts(width);
+        int contentHeight = Math.max(hasLogo ? style.logoSize : 0, titleLayout.getHeight());
+        if (valueLayout != null) contentHeight = Math.max(contentHeight, valueLayout.getHeight());
+        int height = getPaddingTop() + contentHeight + getPaddingBottom();
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    private int logoSpace() {
+        return hasLogo ? style.logoSize + style.logoGap : 0;
+    }
+
+    private int desiredTextWidth() {
+        int titleWidth = (int) Math.ceil(Layout.getDesiredWidth(title, style.titlePaint));
+        int valueWidth = value != null ? (int) Math.ceil(Layout.getDesiredWidth(value, style.valuePaint)) : 0;
+        return value != null ? 2 * Math.max(titleWidth, valueWidth) : titleWidth;
+    }
+
+    private void buildLayouts(int width) {
+        if (width == layoutWidth && titleLayout != null) return;
+        layoutWidth = width;
+        int available = Math.max(0, width - getPaddingLeft() - getPaddingRight() - logoSpace());
+        // Same split as two weight-1 children of a LinearLayout.
+        int titleWidth = value != null ? Math.round(available * 0.5f) : available;
+        titleLayout = layout(title, style.titlePaint, titleWidth, Layout.Alignment.ALIGN_NORMAL, Integer.MAX_VALUE);
+        valueLayout = value != null ? layout(value, style.valuePaint, available - titleWidth, Layout.Alignment.ALIGN_OPPOSITE, VALUE_MAX_LINES) : null;
+    }
+
+    private StaticLayout layout(CharSequence text, TextPaint paint, int width, Layout.Alignment alignment, int maxLines) {
+        return StaticLayout.Builder.obtain(text, 0, text.length(), paint, width)
+            .setAlignment(alignment)
+            .setBreakStrategy(style.breakStrategy)
+            .setHyphenationFrequency(style.hyphenationFrequency)
+            .setEllipsize(maxLines != Integer.MAX_VALUE ? TextUtils.TruncateAt.END : null)
+            .setMaxLines(maxLines)
+            .build();
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        boolean rtl = getLayoutDirection() == LAYOUT_DIRECTION_RTL;
+        int width = getWidth();
+        int contentTop = getPaddingTop();
+        int contentHeight = getHeight() - getPaddingTop() - getPaddingBottom();
+        int start = getPaddingLeft();
+
+        if (hasLogo) {
+            if (logo != null) {
+                int left = rtl ? width - getPaddingRight() - style.logoSize : start;
+                drawLogo(canvas, left, contentTop + (contentHeight - style.logoSize) / 2);
+            }
+            start += logoSpace();
+        }
+
+        int titleWidth = titleLayout.getWidth();
+        drawText(canvas, titleLayout, rtl ? width - start - titleWidth : start, contentTop, contentHeight);
+        if (valueLayout != null) {
+            int valueStart = start + titleWidth;
+            drawText(canvas, valueLayout, rtl ? width - valueStart - valueLayout.getWidth() : valueStart, contentTop, contentHeight);
+        }
+    }
+
+    private static void drawText(Canvas canvas, StaticLayout layout, int left, int contentTop, int contentHeight) {
+        canvas.save();
+        canvas.translate(left, contentTop + (contentHeight - layout.getHeight()) / 2f);
+        layout.draw(canvas);
+        canvas.restore();
+    }
+
+    /** Draws the logo fit-centered in its square, as the ImageView's default scale type did. */
+    private void drawLogo(Canvas canvas, int left, int top) {
+        int size = style.logoSize;
+        int intrinsicWidth = logo.getIntrinsicWidth();
+        int intrinsicHeight = logo.getIntrinsicHeight();
+        if (intrinsicWidth <= 0 || intrinsicHeight <= 0) {
+            logo.setBounds(left, top, left + size, top + size);
+        } else {
+            float scale = Math.min((float) size / intrinsicWidth, (float) size / intrinsicHeight);
+            int drawWidth = Math.round(intrinsicWidth * scale);
+            int drawHeight = Math.round(intrinsicHeight * scale);
+            int x = left + (size - drawWidth) / 2;
+            int y = top + (size - drawHeight) / 2;
+            logo.setBounds(x, y, x + drawWidth, y + drawHeight);
+        }
+        logo.draw(canvas);
+    }
+}
@@ -2,18 +2,16 @@ package com.albermonte.extendeddialog;
 
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.graphics.RectF;
 import android.net.Uri;
-import android.util.Base64;
-import android.view.ViewGroup;
-import android.widget.ImageView;
+import android.util.LruCache;
 import com.caverock.androidsvg.SVG;
 import com.caverock.androidsvg.SVGParseException;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.util.Locale;
 
 final class SvgImageLoader {
@@ -22,6 +20,20 @@ final class SvgImageLoader {
     private static final String DATA_URL_PREFIX = "data:";
     private static final String SVG_SUFFIX = ".svg";
 
+    /** Parsed documents keyed by source hash; parsing dominates SVG cost, not rendering. */
+    private static final LruCache<String, SVG> DOCUMENTS = new LruCache<>(64);
+
+    /** Recorded drawing commands keyed by source hash; one Picture serves every size. */
+    private static final LruCache<String, Picture> PICTURES = new LruCache<>(64);
+
+    /** Used when an SVG declares neither a size nor a viewBox. */
+    private static final int DEFAULT_PICTURE_SIZE = 512;
+
+    static final MemoryTrimmer.Trimmable DOCUMENTS_TRIMMABLE = MemoryTrimmer.countedCache("svgDocuments", DOCUMENTS);
+    static final MemoryTrimmer.Trimmable PICTURES_TRIMMABLE = MemoryTrimmer.countedCache("svgPictures", PICTURES);
+
+    private static volatile boolean pictureRenderingEnabled = true;
+
     private SvgImageLoader() {}
 
     static boolean isDataUrl(String source) {
@@ -40,50 +52,94 @@ final class SvgImageLoader {
         return path != null && path.toLowerCase(Locale.ROOT).endsWith(SVG_SUFFIX);
     }
 
-    /** Supports `;base64` and percent-encoded payloads. */
-    static byte[] decodeDataUrl(String source) throws IOException {
-        int comma = source.indexOf(',');
-        if (comma < 0) throw new IOException("Malformed data URL");
-        String header = source.substring(0, comma);
-        String payload = source.substring(comma + 1);
-        if (header.toLowerCase(Locale.ROOT).contains(";base64")) {
-            return Base64.decode(payload, Base64.DEFAULT);
+    /**
+     * Renders into a {@code width} x {@code height} bitmap taken from {@link BitmapPool}. The
+     * caller owns that pool reference and must {@link BitmapPool#release} it. The parsed
+     * document is reused for every size.
+     */
+    static Bitmap render(String source, int width, int height) throws SVGParseException, IOException {
+        SVG svg = document(source);
+        Bitmap bitmap = BitmapPool.get(width, height, Bitmap.Config.ARGB_8888);
+        // The document size is mutable state on the shared SVG instance.
+        synchronized (svg) {
+            // Rescale via viewBox + preserveAspectRatio so small-viewport SVGs
+            // (e.g. width="20") aren't rendered tiny in the top-left corner.
+            svg.setDocumentWidth(width);
+            svg.setDocumentHeight(height);
+
+            Canvas canvas = new Canvas(bitmap);
+            svg.renderToCanvas(canvas);
         }
-        return URLDecoder.decode(payload, StandardCharsets.UTF_8.name()).getBytes(StandardCharsets.UTF_8);
+        return bitmap;
     }
 
-    /** Sizes Bitmap to {@code targetView}'s layout params (or 64dp default). */
-    static Bitmap render(String source, ImageView targetView) throws SVGParseException, IOException {
-        SVG svg = parse(source);
-        ViewGroup.LayoutParams params = targetView.getLayoutParams();
-        int width = params != null ? params.width : 0;
-        int height = params != null ? params.height : 0;
-        if (width <= 0 || height <= 0) {
-            float density = targetView.getResources().getDisplayMetrics().density;
-            int fallback = (int) (64 * density);
-            if (width <= 0) width = fallback;
-            if (height <= 0) height = fallback;
-        }
+    static void setPictureRenderingEnabled(boolean enabled) {
+        pictureRenderingEnabled = enabled;
+    }
+
+    /**
+     * Whether SVGs should be drawn from a recorded {@link Picture} instead of a Bitmap.
+     * When disabled by the host, SVGs fall back to per-size bitmaps.
+     */
+    static boolean usePictures() {
+        return pictureRenderingEnabled;
+    }
 
-        // Rescale via viewBox + preserveAspectRatio so small-viewport SVGs
-        // (e.g. width="20") aren't rendered tiny in the top-left corner.
-        svg.setDocumentWidth(width);
-        svg.setDocumentHeight(height);
+    static Picture cachedPicture(String source) {
+        return PICTURES.get(BitmapMemoryCache.sourceKey(source));
+    }
 
-        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-        Canvas canvas = new Canvas(bitmap);
-        svg.renderToCanvas(canvas);
-        return bitmap;
+    /**
+     * Records the SVG once at its intrinsic size. Wrapped in a {@code PictureDrawable}, the
+     * ImageView's scale matrix replays the vector commands at whatever size it is laid out at.
+     */
+    static Picture renderPicture(String source) throws SVGParseException, IOException {
+        String key = BitmapMemoryCache.sourceKey(source);
+        Picture picture = PICTURES.get(key);
+        if (picture != null) {
+            return picture;
+        }
+        SVG svg = document(source);
+        synchronized (svg) {
+            int width;
+            int height;
+            RectF viewBox = svg.getDocumentViewBox();
+            if (viewBox != null && viewBox.width() > 0 && viewBox.height() > 0) {
+                width = Math.round(viewBox.width());
+                height = Math.round(viewBox.height());
+            } else {
+                width = Math.round(svg.getDocumentWidth());
+                height = Math.round(svg.getDocumentHeight());
+            }
+            if (width <= 0 || height <= 0) {
+                width = DEFAULT_PICTURE_SIZE;
+                height = DEFAULT_PICTURE_SIZE;
+            }
+            picture = svg.renderToPicture(width, height);
+        }
+        PICTURES.put(key, picture);
+        return picture;
+    }
+
+    private static SVG document(String source) throws SVGParseException, IOException {
+        String key = BitmapMemoryCache.sourceKey(source);
+        SVG svg = DOCUMENTS.get(key);
+        if (svg == null) {
+            svg = parse(source);
+            DOCUMENTS.put(key, svg);
+        }
+        return svg;
     }
 
     private static SVG parse(String source) throws SVGParseException, IOException {
         if (isDataUrl(source)) {
-            byte[] bytes = decodeDataUrl(source);
-            try (InputStream in = new ByteArrayInputStream(bytes)) {
+            ByteBuffer bytes = DataUrlDecoder.decode(source);
+            try (InputStream in = new ByteArrayInputStream(bytes.array(), bytes.arrayOffset(), bytes.remaining())) {
                 return SVG.getFromInputStream(in);
             }
         }
-        try (InputStream in = new URL(source).openStream()) {
+        byte[] bytes = HttpImageFetcher.fetch(source);
+        try (InputStream in = new ByteArrayInputStream(bytes)) {
             return SVG.getFromInputStream(in);
         }
     }
@@ -0,0 +1,33 @@
+package com.albermonte.extendeddialog;
+
+import java.util.WeakHashMap;
+
+/**
+ * The request each image target is waiting on, so rebinding the target can cancel it.
+ * Requests hold their target strongly, which would keep a weak key alive, so every
+ * request must be unbound once it completes, fails or is cancelled. Main thread only.
+ */
+final class TargetBindings<T, R> {
+
+    private final WeakHashMap<T, R> bound = new WeakHashMap<>();
+
+    void bind(T target, R request) {
+        bound.put(target, request);
+    }
+
+    /** Removes and returns whatever {@code target} is bound to, or null. */
+    R unbind(T target) {
+        return bound.remove(target);
+    }
+
+    /** Removes {@code target}'s binding only if it is still {@code request}, leaving a newer one alone. */
+    void unbind(T target, R request) {
+        if (bound.get(target) == request) {
+            bound.remove(target);
+        }
+    }
+
+    int size() {
+        return bound.size();
+    }
+}
@@ -0,0 +1,87 @@
+package com.albermonte.extendeddialog;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
+import com.google.android.material.color.MaterialColors;
+import com.google.android.material.shape.MaterialShapeDrawable;
+import com.google.android.material.shape.ShapeAppearanceModel;
+import java.util.HashMap;
+import java.util.WeakHashMap;
+
+/**
+ * Theme colors the dialogs use, resolved once per themed context and UI mode so building
+ * rows and options does no attribute lookups. Fallbacks are the M3 baseline values.
+ * {@link #of} may also be called from the bridge thread while a dialog is prepared; the
+ * shared drawables are main thread only.
+ */
+final class ThemeTokens {
+
+    private static final WeakHashMap<Context, ThemeTokens> SNAPSHOTS = new WeakHashMap<>();
+    // Keyed by shape and color, so every sheet with the same look shares one state.
+    private static final HashMap<String, Drawable.ConstantState> DRAWABLES = new HashMap<>();
+
+    /** textColorPrimary: titles, list items, navigation icon. */
+    final int onSurface;
+    /** textColorSecondary: supporting text and row values. */
+    final int onSurfaceVariant;
+    /** textColorSecondary with the outline-variant fallback, for the drag handle. */
+    final int outlineVariant;
+    final int primary;
+    /** colorBackground: fullscreen dialog surface. */
+    final int surface;
+    final int surfaceVariant;
+    final int divider;
+
+    private final int uiMode;
+
+    private ThemeTokens(Context ctx, int uiMode) {
+        this.uiMode = uiMode;
+        onSurface = MaterialColors.getColor(ctx, android.R.attr.textColorPrimary, 0xFF1D1B20);
+        onSurfaceVariant = MaterialColors.getColor(ctx, android.R.attr.textColorSecondary, 0xFF49454F);
+        outlineVariant = MaterialColors.getColor(ctx, android.R.attr.textColorSecondary, 0xFFCAC4D0);
+        primary = MaterialColors.getColor(ctx, android.R.attr.colorPrimary, 0xFF6750A4);
+        surface = MaterialColors.getColor(ctx, android.R.attr.colorBackground, 0xFFFFFFFF);
+        surfaceVariant = MaterialColors.getColor(ctx, com.google.android.material.R.attr.colorSurfaceVariant, 0xFFE7E0EC);
+        divider = MaterialColors.getColor(ctx, android.R.attr.listDivider, 0xFFE0E0E0);
+    }
+
+    static synchronized ThemeTokens of(Context ctx) {
+        int uiMode = ctx.getResources().getConfiguration().uiMode;
+        ThemeTokens tokens = SNAPSHOTS.get(ctx);
+        if (tokens == null || tokens.uiMode != uiMode) {
+            tokens = new ThemeTokens(ctx, uiMode);
+            SNAPSHOTS.put(ctx, tokens);
+        }
+        return tokens;
+    }
+
+    /** Rounded pill for the sheet drag handle. */
+    Drawable dragHandle(float cornerRadius) {
+        String key = "handle:" + outlineVariant + ":" + cornerRadius;
+        Drawable.ConstantState state = DRAWABLES.get(key);
+        if (state == null) {
+            GradientDrawable handleDrawable = new GradientDrawable();
+            handleDrawable.setShape(GradientDrawable.RECTANGLE);
+            handleDrawable.setCornerRadius(cornerRadius);
+            handleDrawable.setColor(outlineVariant);
+            state = handleDrawable.getConstantState();
+            DRAWABLES.put(key, state);
+        }
+        return state.newDrawable();
+    }
+
+    /** Rounded surface-variant card behind the message of a message sheet. */
+    Drawable messageBackground(float cornerSize) {
+        String key = "message:" + surfaceVariant + ":" + cornerSize;
+        Drawable.ConstantState state = DRAWABLES.get(key);
+        if (state == null) {
+            MaterialShapeDrawable messageBackground = new MaterialShapeDrawable(ShapeAppearanceModel.builder().setAllCornerSizes(cornerSize).build());
+            messageBackground.setFillColor(ColorStateList.valueOf(surfaceVariant));
+            state = messageBackground.getConstantState();
+            DRAWABLES.put(key, state);
+        }
+        return state.newDrawable();
+    }
+}
@@ -0,0 +1,28 @@
+package com.albermonte.extendeddialog;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class BitmapDecoderTest {
+
+    @Test
+    public void sampleSize_keepsDecodedSizeAtOrAboveTarget() {
+        // 4000px logo shown at 72px (24dp @ 3x): 4000 / 32 = 125 >= 72, 4000 / 64 = 62 < 72
+        assertEquals(32, BitmapDecoder.sampleSize(4000, 4000, 72, 72));
+        assertEquals(1, BitmapDecoder.sampleSize(100, 100, 72, 72));
+        assertEquals(1, BitmapDecoder.sampleSize(4000, 4000, 0, 0));
+    }
+
+    @Test
+    public void scaledSize_fitsInsideTargetPreservingAspectRatio() {
+        assertArrayEquals(new int[] { 144, 72 }, BitmapDecoder.scaledSize(4000, 2000, 144, 144));
+        assertArrayEquals(new int[] { 72, 144 }, BitmapDecoder.scaledSize(1000, 2000, 144, 144));
+    }
+
+    @Test
+    public void scaledSize_neverUpscales() {
+        assertArrayEquals(new int[] { 32, 32 }, BitmapDecoder.scaledSize(32, 32, 144, 144));
+    }
+}
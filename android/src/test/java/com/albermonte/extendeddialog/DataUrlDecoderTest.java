@@ -0,0 +1,46 @@
+package com.albermonte.extendeddialog;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import org.junit.Test;
+
+public class DataUrlDecoderTest {
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void decode_base64MatchesReferenceDecoder() throws IOException {
+        byte[] payload = new byte[1000];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i * 7);
+        }
+        for (int length = 0; length < 5; length++) {
+            byte[] slice = Arrays.copyOf(payload, payload.length - length);
+            String url = "data:image/png;base64," + Base64.getMimeEncoder().encodeToString(slice);
+
+            assertArrayEquals(slice, toArray(DataUrlDecoder.decode(url)));
+        }
+    }
+
+    @Test
+    public void decode_percentEncodedPayloadAsUtf8() throws IOException {
+        String url = "data:image/svg+xml,%3Csvg%20xmlns='http://www.w3.org/2000/svg'%3E<text>é€😀+</text>%3C/svg%3E";
+
+        byte[] expected = "<svg xmlns='http://www.w3.org/2000/svg'><text>é€😀+</text></svg>".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, toArray(DataUrlDecoder.decode(url)));
+    }
+
+    @Test(expected = IOException.class)
+    public void decode_rejectsMissingComma() throws IOException {
+        DataUrlDecoder.decode("data:image/png;base64");
+    }
+}
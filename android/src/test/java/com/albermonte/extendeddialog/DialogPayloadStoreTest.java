@@ -0,0 +1,37 @@
+package com.albermonte.extendeddialog;
+
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import org.junit.Test;
+
+public class DialogPayloadStoreTest {
+
+    @Test
+    public void put_returnsDistinctIdsForEachPayload() {
+        DialogPayloadStore store = new DialogPayloadStore();
+        DialogPayloadStore.Rows first = new DialogPayloadStore.Rows(Collections.emptyList());
+        DialogPayloadStore.Rows second = new DialogPayloadStore.Rows(Collections.emptyList());
+
+        String firstId = store.put(first);
+        String secondId = store.put(second);
+
+        assertNotEquals(firstId, secondId);
+        assertSame(first, store.get(firstId, DialogPayloadStore.Rows.class));
+        assertSame(second, store.get(secondId, DialogPayloadStore.Rows.class));
+    }
+
+    @Test
+    public void get_returnsNullForOtherTypesAndRemovedOrUnknownIds() {
+        DialogPayloadStore store = new DialogPayloadStore();
+        String id = store.put(new DialogPayloadStore.Rows(Collections.emptyList()));
+
+        assertNull(store.get(id, DialogPayloadStore.Selection.class));
+        assertNull(store.get("dialog-unknown", DialogPayloadStore.Rows.class));
+        assertNull(store.get(null, DialogPayloadStore.Rows.class));
+        store.remove(id);
+        assertNull(store.get(id, DialogPayloadStore.Rows.class));
+    }
+}
@@ -0,0 +1,77 @@
+package com.albermonte.extendeddialog;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DiskImageCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] payload(int size, int seed) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 31 + seed);
+        }
+        return bytes;
+    }
+
+    @Test
+    public void get_returnsStoredBytesAcrossReopen() throws Exception {
+        File dir = folder.newFolder();
+        DiskImageCache cache = new DiskImageCache(dir, 1024 * 1024, 64);
+        cache.put("https://example.com/a.png", payload(500, 1));
+        cache.close();
+
+        DiskImageCache reopened = new DiskImageCache(dir, 1024 * 1024, 64);
+
+        assertArrayEquals(payload(500, 1), reopened.get("https://example.com/a.png"));
+        assertNull(reopened.get("https://example.com/missing.png"));
+    }
+
+    @Test
+    public void get_ignoresRecordsTruncatedByCrash() throws Exception {
+        File dir = folder.newFolder();
+        DiskImageCache cache = new DiskImageCache(dir, 1024 * 1024, 64);
+        cache.put("https://example.com/a.png", payload(500, 1));
+        cache.put("https://example.com/b.png", payload(500, 2));
+        cache.close();
+
+        // Simulate a crash in the middle of appending the second record.
+        try (RandomAccessFile data = new RandomAccessFile(new File(dir, "data.0"), "rw")) {
+            data.setLength(data.length() - 100);
+        }
+        DiskImageCache reopened = new DiskImageCache(dir, 1024 * 1024, 64);
+
+        assertArrayEquals(payload(500, 1), reopened.get("https://example.com/a.png"));
+        assertNull(reopened.get("https://example.com/b.png"));
+        assertEquals(1, reopened.entryCount());
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsedWhenOverBudget() throws Exception {
+        File dir = folder.newFolder();
+        DiskImageCache cache = new DiskImageCache(dir, 8 * 1024, 64);
+        for (int i = 0; i < 6; i++) {
+            cache.put("key" + i, payload(1000, i));
+        }
+        // Touch key0 so it outlives the keys written after it.
+        cache.get("key0");
+        for (int i = 6; i < 10; i++) {
+            cache.put("key" + i, payload(1000, i));
+        }
+
+        assertTrue(cache.sizeBytes() <= 8 * 1024);
+        assertArrayEquals(payload(1000, 0), cache.get("key0"));
+        assertNull(cache.get("key1"));
+        assertArrayEquals(payload(1000, 9), cache.get("key9"));
+    }
+}
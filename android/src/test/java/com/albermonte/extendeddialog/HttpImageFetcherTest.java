@@ -0,0 +1,161 @@
+package com.albermonte.extendeddialog;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class HttpImageFetcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private final List<String> ifNoneMatch = new ArrayList<>();
+    private volatile String cacheControl = "no-cache";
+    private volatile int bodySize = 2048;
+    private volatile int delayMs;
+    private volatile String bareCacheControl;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/logo.png", (exchange) -> {
+            synchronized (ifNoneMatch) {
+                ifNoneMatch.add(exchange.getRequestHeaders().getFirst("If-None-Match"));
+            }
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException ignored) {}
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            // Chunked, so the size limit can't rely on Content-Length.
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body(bodySize));
+            }
+        });
+        // No validators or freshness headers unless the test sets Cache-Control.
+        server.createContext("/bare.png", (exchange) -> {
+            if (bareCacheControl != null) {
+                exchange.getResponseHeaders().set("Cache-Control", bareCacheControl);
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        HttpImageFetcher.setTimeouts(0, 0, 0);
+        HttpImageFetcher.setMaxBytes(0);
+    }
+
+    private String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/logo.png";
+    }
+
+    private static byte[] body(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 7);
+        }
+        return bytes;
+    }
+
+    private long expiresAt(long now) throws IOException {
+        URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/bare.png");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            assertEquals(200, connection.getResponseCode());
+            return HttpImageFetcher.expiresAt(connection, now);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    public void fetch_revalidatesStaleEntryWithEtag() throws Exception {
+        DiskImageCache cache = new DiskImageCache(folder.newFolder(), 1024 * 1024, 64);
+
+        assertArrayEquals(body(2048), HttpImageFetcher.fetch(url(), cache));
+        long dataBytes = cache.sizeBytes();
+        assertArrayEquals(body(2048), HttpImageFetcher.fetch(url(), cache));
+        assertArrayEquals(body(2048), HttpImageFetcher.fetch(url(), cache));
+
+        // A 304 only refreshes the index slot; the body is not appended again.
+        assertEquals(dataBytes, cache.sizeBytes());
+        assertEquals(3, ifNoneMatch.size());
+        assertNull(ifNoneMatch.get(0));
+        assertEquals("\"v1\"", ifNoneMatch.get(1));
+    }
+
+    @Test
+    public void expiresAt_withoutFreshnessHeadersIsStaleAtOnce() throws Exception {
+        assertEquals(1_000_000L, expiresAt(1_000_000L));
+    }
+
+    @Test
+    public void expiresAt_saturatesHugeMaxAge() throws Exception {
+        bareCacheControl = "max-age=99999999999999999";
+        long now = System.currentTimeMillis();
+
+        long expiresAt = expiresAt(now);
+        assertTrue(expiresAt > now);
+        assertTrue(Long.MAX_VALUE - expiresAt < 1000);
+    }
+
+    @Test
+    public void fetch_servesFreshEntryWithoutNetwork() throws Exception {
+        cacheControl = "max-age=3600";
+        DiskImageCache cache = new DiskImageCache(folder.newFolder(), 1024 * 1024, 64);
+
+        HttpImageFetcher.fetch(url(), cache);
+        assertArrayEquals(body(2048), HttpImageFetcher.fetch(url(), cache));
+
+        assertEquals(1, ifNoneMatch.size());
+    }
+
+    @Test
+    public void fetch_rejectsBodiesOverLimit() throws Exception {
+        bodySize = 64 * 1024;
+        HttpImageFetcher.setMaxBytes(20 * 1024);
+        DiskImageCache cache = new DiskImageCache(folder.newFolder(), 1024 * 1024, 64);
+
+        try {
+            HttpImageFetcher.fetch(url(), cache);
+            fail("Expected the size limit to abort the download");
+        } catch (IOException expected) {}
+        assertEquals(0, cache.entryCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void fetch_failsWhenServerStallsPastReadTimeout() throws Exception {
+        delayMs = 1000;
+        HttpImageFetcher.setTimeouts(1000, 100, 1000);
+
+        HttpImageFetcher.fetch(url(), null);
+    }
+}
@@ -0,0 +1,89 @@
+package com.albermonte.extendeddialog;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.ComponentCallbacks2;
+import org.junit.Test;
+
+public class MemoryTrimmerTest {
+
+    @Test
+    public void retainedFraction_scalesWithTrimLevel() {
+        assertEquals(1f, MemoryTrimmer.retainedFraction(0, false), 0f);
+        assertEquals(0.5f, MemoryTrimmer.retainedFraction(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN, false), 0f);
+        assertEquals(0.5f, MemoryTrimmer.retainedFraction(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND, false), 0f);
+        assertEquals(0.25f, MemoryTrimmer.retainedFraction(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW, false), 0f);
+        assertEquals(0f, MemoryTrimmer.retainedFraction(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL, false), 0f);
+        assertEquals(0f, MemoryTrimmer.retainedFraction(ComponentCallbacks2.TRIM_MEMORY_COMPLETE, false), 0f);
+    }
+
+    @Test
+    public void retainedFraction_clearsOnLowRamDevicesOnceHidden() {
+        assertEquals(0f, MemoryTrimmer.retainedFraction(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN, true), 0f);
+        assertEquals(1f, MemoryTrimmer.retainedFraction(0, true), 0f);
+    }
+
+    @Test
+    public void trim_reportsWhatEachCacheFreed() {
+        FakeCache cache = new FakeCache("fake");
+        MemoryTrimmer.register(cache);
+
+        MemoryTrimmer.TrimReport report = MemoryTrimmer.trim(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW, 0.25f);
+
+        MemoryTrimmer.CacheStats freed = null;
+        for (MemoryTrimmer.CacheStats stats : report.freed) {
+            if (stats.name.equals("fake")) freed = stats;
+        }
+        assertEquals(75, freed.entries);
+        assertEquals(7500, freed.bytes);
+        assertEquals(report, MemoryTrimmer.lastTrim());
+    }
+
+    @Test
+    public void shrinkBudgets_halvesEveryRegisteredCache() {
+        FakeCache cache = new FakeCache("budgeted");
+        MemoryTrimmer.register(cache);
+
+        MemoryTrimmer.shrinkBudgets(2);
+
+        assertEquals(50, cache.budget);
+        assertEquals(50, cache.entries);
+    }
+
+    private static final class FakeCache implements MemoryTrimmer.Trimmable {
+
+        final String name;
+        int entries = 100;
+        int budget = 100;
+
+        FakeCache(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public int entryCount() {
+            return entries;
+        }
+
+        @Override
+        public long sizeBytes() {
+            return entries * 100L;
+        }
+
+        @Override
+        public void trimTo(float fraction) {
+            entries = (int) (entries * fraction);
+        }
+
+        @Override
+        public void shrinkBudget(int divisor) {
+            budget /= divisor;
+            entries = Math.min(entries, budget);
+        }
+    }
+}
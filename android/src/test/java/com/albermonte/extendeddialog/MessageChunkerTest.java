@@ -0,0 +1,53 @@
+package com.albermonte.extendeddialog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class MessageChunkerTest {
+
+    @Test
+    public void split_prefersLineBreaksAndDropsThem() {
+        List<String> chunks = MessageChunker.split("first paragraph\n\nsecond one\nthird", 20);
+
+        // "first paragraph\n" keeps the blank line the paragraph break rendered as.
+        assertEquals(Arrays.asList("first paragraph\n", "second one\nthird"), chunks);
+    }
+
+    @Test
+    public void split_fallsBackToSpacesThenHardLimit() {
+        assertEquals(Arrays.asList("aaa bbb", "ccc"), MessageChunker.split("aaa bbb ccc", 8));
+        assertEquals(Arrays.asList("abcd", "efgh", "ij"), MessageChunker.split("abcdefghij", 4));
+    }
+
+    @Test
+    public void split_neverBreaksSurrogatePairs() {
+        String emoji = "😀";
+        List<String> chunks = MessageChunker.split("abc" + emoji + "def", 4);
+
+        assertEquals("abc", chunks.get(0));
+        assertTrue(chunks.get(1).startsWith(emoji));
+    }
+
+    @Test
+    public void split_keepsEveryChunkWithinLimitAndLosesNoText() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            text.append("Clause ").append(i).append(" applies to every user of the service.").append(i % 7 == 0 ? "\n\n" : " ");
+        }
+        List<String> chunks = MessageChunker.split(text.toString(), MessageChunker.CHUNK_LENGTH);
+
+        int length = 0;
+        for (String chunk : chunks) {
+            assertTrue(chunk.length() <= MessageChunker.CHUNK_LENGTH);
+            length += chunk.length();
+        }
+        // Each boundary drops exactly one separator character.
+        assertEquals(text.length(), length + chunks.size() - 1);
+        assertFalse(MessageChunker.shouldChunk("short"));
+    }
+}
@@ -0,0 +1,47 @@
+package com.albermonte.extendeddialog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import org.json.JSONArray;
+import org.junit.Test;
+
+public class OptionListParserTest {
+
+    private static final String OPTIONS =
+        "[{\"label\":\"Euro\",\"value\":\"EUR\"},{\"label\":\"Dollar\"},\"USD\",{\"label\":2,\"value\":true,\"extra\":{\"a\":[1]}},{\"label\":null,\"value\":\"x\"}]";
+
+    @Test
+    public void parse_treeReportsMalformedEntriesByIndexAndKeepsTheRest() throws Exception {
+        OptionListParser.Result result = OptionListParser.parse(new JSONArray(OPTIONS));
+
+        assertEquals(2, result.options.size());
+        assertEquals("EUR", result.options.value(0));
+        assertEquals("2", result.options.label(1));
+        assertEquals("true", result.options.value(1));
+        assertEquals(
+            Arrays.asList("options[1]: missing \"value\"", "options[2]: not an object", "options[4]: missing \"label\""),
+            result.errors
+        );
+    }
+
+    @Test
+    public void parse_sharesOneInstancePerDistinctString() throws Exception {
+        OptionListParser.Result result = OptionListParser.parse(new JSONArray("[{\"label\":\"Same\",\"value\":\"Same\"},{\"label\":\"Same\",\"value\":\"b\"}]"));
+
+        assertFalse(result.hasErrors());
+        assertSame(result.options.label(0), result.options.value(0));
+        assertSame(result.options.label(0), result.options.label(1));
+    }
+
+    @Test
+    public void describeErrors_countsErrorsBeyondTheLimit() throws Exception {
+        OptionListParser.Result result = OptionListParser.parse(new JSONArray("[1,2,3]"));
+
+        assertTrue(result.hasErrors());
+        assertEquals("options[0]: not an object; options[1]: not an object (+1 more)", result.describeErrors(2));
+    }
+}
@@ -0,0 +1,55 @@
+package com.albermonte.extendeddialog;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Locale;
+import org.junit.Test;
+
+public class OptionSearchIndexTest {
+
+    private static OptionSearchIndex index(String... labels) {
+        return OptionSearchIndex.build(new OptionList(labels, labels.clone()), Locale.ENGLISH);
+    }
+
+    @Test
+    public void fold_ignoresCaseAndAccents() {
+        assertEquals("eire", OptionSearchIndex.fold("Éire", Locale.ENGLISH));
+        assertEquals("sao tome", OptionSearchIndex.fold("São Tomé", Locale.ENGLISH));
+    }
+
+    @Test
+    public void filter_ranksPrefixThenWordPrefixThenSubstring() {
+        OptionSearchIndex index = index("Mali", "Somalia", "North Macedonia", "Malta", "Guatemala");
+
+        OptionSearchIndex.Result result = index.filter("mal", null);
+
+        // Prefix: Mali, Malta; no word prefix; substring: Guatemala, Somalia (collation order).
+        assertArrayEquals(new int[] { 0, 3, 4, 1 }, result.indices);
+        assertArrayEquals(new int[] { 2 }, index.filter("mac", null).indices);
+    }
+
+    @Test
+    public void filter_ordersEachGroupByCollation() {
+        OptionSearchIndex index = index("Zambia", "Åland", "Albania", "algeria");
+
+        assertArrayEquals(new int[] { 1, 2, 3 }, index.filter("al", null).indices);
+    }
+
+    @Test
+    public void filter_refiningAQueryMatchesAFullScan() {
+        OptionSearchIndex index = index("Canada", "Cameroon", "Cambodia", "Chad", "Panama");
+        OptionSearchIndex.Result broad = index.filter("ca", null);
+
+        OptionSearchIndex.Result refined = index.filter("cam", broad);
+
+        assertArrayEquals(index.filter("cam", null).indices, refined.indices);
+        assertArrayEquals(new int[] { 2, 1 }, refined.indices);
+    }
+
+    @Test
+    public void filter_blankQueryShowsEveryOption() {
+        assertNull(index("a", "b").filter("  ", null));
+    }
+}
@@ -0,0 +1,73 @@
+package com.albermonte.extendeddialog;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class OptionSelectionTest {
+
+    private static OptionList options(String... values) {
+        return new OptionList(values.clone(), values);
+    }
+
+    @Test
+    public void single_tapMovesCheckAndReportsPreviousIndex() {
+        OptionSelection selection = OptionSelection.single(options("a", "b", "c"), "b");
+
+        assertTrue(selection.isChecked(1));
+        assertEquals(1, selection.toggle(2));
+        assertFalse(selection.isChecked(1));
+        assertEquals("c", selection.selectedValue());
+        // Tapping the checked option again keeps it checked.
+        assertEquals(-1, selection.toggle(2));
+        assertTrue(selection.isChecked(2));
+    }
+
+    @Test
+    public void single_unknownPreselectedValueLeavesSelectionEmpty() {
+        OptionSelection selection = OptionSelection.single(options("a", "b"), "z");
+
+        assertTrue(selection.isEmpty());
+        assertNull(selection.selectedValue());
+    }
+
+    @Test
+    public void multiple_togglesAndReturnsValuesInOptionOrder() {
+        OptionSelection selection = OptionSelection.multiple(options("a", "b", "c", "d"), Arrays.asList("d", "b"));
+
+        selection.toggle(0);
+        selection.toggle(1);
+
+        assertArrayEquals(new String[] { "a", "d" }, selection.selectedValues());
+        selection.toggle(0);
+        selection.toggle(3);
+        assertTrue(selection.isEmpty());
+    }
+
+    @Test
+    public void multiple_duplicateValuesAreReportedOnce() {
+        OptionSelection selection = OptionSelection.multiple(options("a", "a", "b"), Collections.singletonList("a"));
+
+        assertTrue(selection.isChecked(0));
+        assertTrue(selection.isChecked(1));
+        assertArrayEquals(new String[] { "a" }, selection.selectedValues());
+    }
+
+    @Test
+    public void multiple_checksEveryOptionWithAPreselectedValue() {
+        OptionSelection selection = OptionSelection.multiple(options("a", "b", "a", "c", "b"), Arrays.asList("b", "b", "z"));
+
+        assertFalse(selection.isChecked(0));
+        assertTrue(selection.isChecked(1));
+        assertFalse(selection.isChecked(2));
+        assertFalse(selection.isChecked(3));
+        assertTrue(selection.isChecked(4));
+        assertArrayEquals(new String[] { "b" }, selection.selectedValues());
+    }
+}
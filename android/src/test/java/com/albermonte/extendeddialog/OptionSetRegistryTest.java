@@ -0,0 +1,79 @@
+package com.albermonte.extendeddialog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OptionSetRegistryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static OptionList currencies() {
+        return new OptionList(new String[] { "Euro", "US Dollar", "USD" }, new String[] { "EUR", "USD", "USD" });
+    }
+
+    @Test
+    public void get_loadsPersistedSetAfterRestart() throws Exception {
+        File dir = folder.newFolder();
+        new OptionSetRegistry(dir).register("currencies", currencies(), true);
+
+        OptionList loaded = new OptionSetRegistry(dir).get("currencies");
+
+        assertEquals(3, loaded.size());
+        assertEquals("US Dollar", loaded.label(1));
+        assertEquals("EUR", loaded.value(0));
+        // The string table keeps repeated strings shared.
+        assertSame(loaded.value(1), loaded.label(2));
+    }
+
+    @Test
+    public void register_withoutPersistReplacesAnEarlierPersistedSet() throws Exception {
+        File dir = folder.newFolder();
+        OptionSetRegistry registry = new OptionSetRegistry(dir);
+        registry.register("currencies", currencies(), true);
+        OptionList replacement = new OptionList(new String[] { "Yen" }, new String[] { "JPY" });
+
+        registry.register("currencies", replacement, false);
+
+        assertSame(replacement, registry.get("currencies"));
+        assertNull(new OptionSetRegistry(dir).get("currencies"));
+    }
+
+    @Test
+    public void unregister_forgetsTheSetInMemoryAndOnDisk() throws Exception {
+        File dir = folder.newFolder();
+        OptionSetRegistry registry = new OptionSetRegistry(dir);
+        registry.register("currencies", currencies(), true);
+
+        assertTrue(registry.unregister("currencies"));
+
+        assertNull(registry.get("currencies"));
+        assertNull(new OptionSetRegistry(dir).get("currencies"));
+        assertFalse(registry.unregister("currencies"));
+    }
+
+    @Test
+    public void read_roundTripsLongStrings() throws Exception {
+        StringBuilder label = new StringBuilder();
+        for (int i = 0; i < 70_000; i++) {
+            label.append('é');
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OptionSetRegistry.write(new OptionList(new String[] { label.toString() }, new String[] { "" }), out);
+
+        OptionList read = OptionSetRegistry.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(label.toString(), read.label(0));
+        assertEquals("", read.value(0));
+    }
+}
@@ -0,0 +1,46 @@
+package com.albermonte.extendeddialog;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class SheetRowAdapterTest {
+
+    @Test
+    public void rowDiff_treatsALogoChangeAsAContentChange() {
+        List<SheetRow> oldRows = Arrays.asList(new SheetRow("BTC", "1.0", "btc.png"), new SheetRow("Fee", "0.1", null));
+        List<SheetRow> newRows = Arrays.asList(new SheetRow("Fee", "0.1", null), new SheetRow("BTC", "1.0", "btc-dark.png"));
+        SheetRowAdapter.RowDiff diff = new SheetRowAdapter.RowDiff(oldRows, newRows);
+
+        assertTrue(diff.areItemsTheSame(0, 1));
+        assertFalse(diff.areContentsTheSame(0, 1));
+        assertTrue(diff.areItemsTheSame(1, 0));
+        assertTrue(diff.areContentsTheSame(1, 0));
+    }
+
+    @Test
+    public void rowDiff_matchesRowsWithTheSameTitleById() {
+        List<SheetRow> oldRows = Arrays.asList(new SheetRow("network", "Fee", "0.1", null), new SheetRow("service", "Fee", "0.2", null));
+        List<SheetRow> newRows = Arrays.asList(new SheetRow("service", "Fee", "0.3", null), new SheetRow("network", "Fee", "0.1", null));
+        SheetRowAdapter.RowDiff diff = new SheetRowAdapter.RowDiff(oldRows, newRows);
+
+        assertFalse(diff.areItemsTheSame(0, 0));
+        assertTrue(diff.areItemsTheSame(0, 1));
+        assertTrue(diff.areContentsTheSame(0, 1));
+        assertTrue(diff.areItemsTheSame(1, 0));
+        assertFalse(diff.areContentsTheSame(1, 0));
+    }
+
+    @Test
+    public void rowDiff_updatesTheTitleOfARowWithAnId() {
+        List<SheetRow> oldRows = Arrays.asList(new SheetRow("total", "Total", "$9.99", null));
+        List<SheetRow> newRows = Arrays.asList(new SheetRow("total", "Total (incl. fees)", "$9.99", null));
+        SheetRowAdapter.RowDiff diff = new SheetRowAdapter.RowDiff(oldRows, newRows);
+
+        assertTrue(diff.areItemsTheSame(0, 0));
+        assertFalse(diff.areContentsTheSame(0, 0));
+    }
+}
@@ -0,0 +1,44 @@
+package com.albermonte.extendeddialog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.Test;
+
+public class SheetRowTest {
+
+    @Test
+    public void fromJson_readsTitleValueAndLogo() throws Exception {
+        List<SheetRow> rows = SheetRow.fromJson(
+            new JSONArray("[{\"title\":\"Total\",\"value\":\"$9.99\",\"logo\":\"https://example.com/a.png\"},{\"title\":\"Fee\"}]")
+        );
+
+        assertEquals(2, rows.size());
+        assertEquals("Total", rows.get(0).title);
+        assertEquals("$9.99", rows.get(0).value);
+        assertTrue(rows.get(0).hasLogo());
+        assertEquals("Fee", rows.get(1).title);
+        assertNull(rows.get(1).value);
+        assertFalse(rows.get(1).hasLogo());
+    }
+
+    @Test
+    public void fromJson_treatsEmptyOptionalFieldsAsAbsent() throws Exception {
+        List<SheetRow> rows = SheetRow.fromJson(new JSONArray("[{\"id\":\"\",\"title\":\"Fee\",\"value\":\"\",\"logo\":\"\"}]"));
+
+        assertNull(rows.get(0).id);
+        assertEquals("Fee", rows.get(0).key());
+        assertNull(rows.get(0).value);
+        assertFalse(rows.get(0).hasLogo());
+    }
+
+    @Test(expected = JSONException.class)
+    public void fromJson_rejectsRowsWithoutTitle() throws Exception {
+        SheetRow.fromJson(new JSONArray("[{\"value\":\"$1\"}]"));
+    }
+}
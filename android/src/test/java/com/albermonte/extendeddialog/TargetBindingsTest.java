@@ -0,0 +1,75 @@
+package com.albermonte.extendeddialog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import org.junit.Test;
+
+public class TargetBindingsTest {
+
+    /** Like ImageLoader's requests, holds its target strongly. */
+    private static final class Request {
+
+        final Object target;
+
+        Request(Object target) {
+            this.target = target;
+        }
+    }
+
+    private static boolean collected(WeakReference<?> reference) throws InterruptedException {
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        return reference.get() == null;
+    }
+
+    @Test
+    public void unbind_cancelledRequestLetsTargetBeCollected() throws InterruptedException {
+        TargetBindings<Object, Request> bindings = new TargetBindings<>();
+        Object target = new Object();
+        Request request = new Request(target);
+        bindings.bind(target, request);
+        WeakReference<Object> reference = new WeakReference<>(target);
+
+        bindings.unbind(target, request);
+        target = null;
+        request = null;
+
+        assertTrue(collected(reference));
+        assertEquals(0, bindings.size());
+    }
+
+    @Test
+    public void bound_requestKeepsItsTargetAlive() throws InterruptedException {
+        TargetBindings<Object, Request> bindings = new TargetBindings<>();
+        Object target = new Object();
+        bindings.bind(target, new Request(target));
+        WeakReference<Object> reference = new WeakReference<>(target);
+        target = null;
+
+        // Why every completed, failed or cancelled request must be unbound.
+        assertFalse(collected(reference));
+        assertEquals(1, bindings.size());
+    }
+
+    @Test
+    public void unbind_staleRequestKeepsNewerBinding() {
+        TargetBindings<Object, Request> bindings = new TargetBindings<>();
+        Object target = new Object();
+        Request stale = new Request(target);
+        Request current = new Request(target);
+        bindings.bind(target, stale);
+        bindings.bind(target, current);
+
+        bindings.unbind(target, stale);
+
+        assertSame(current, bindings.unbind(target));
+        assertNull(bindings.unbind(target));
+    }
+}
@@ -12,10 +12,13 @@ public class ExtendedDialogPlugin: CAPPlugin, CAPBridgedPlugin {
         CAPPluginMethod(name: "singleSelect", returnType: CAPPluginReturnPromise),
         CAPPluginMethod(name: "multiSelect", returnType: CAPPluginReturnPromise),
         CAPPluginMethod(name: "sheet", returnType: CAPPluginReturnPromise),
-        CAPPluginMethod(name: "messageSheet", returnType: CAPPluginReturnPromise)
+        CAPPluginMethod(name: "messageSheet", returnType: CAPPluginReturnPromise),
+        CAPPluginMethod(name: "registerOptionSet", returnType: CAPPluginReturnPromise),
+        CAPPluginMethod(name: "unregisterOptionSet", returnType: CAPPluginReturnPromise)
     ]
 
     private let implementation = ExtendedDialog()
+    private let optionSets = OptionSetRegistry()
 
     private func extractStyleOptions(_ call: CAPPluginCall) -> DialogStyleOptions {
         return DialogStyleOptions(
@@ -117,8 +120,7 @@ public class ExtendedDialogPlugin: CAPPlugin, CAPBridgedPlugin {
             call.reject("message is required")
             return
         }
-        guard let optionsArray = call.getArray("options") as? [[String: String]] else {
-            call.reject("options is required")
+        guard let optionsArray = resolveOptions(call) else {
             return
         }
         let selectedValue = call.getString("selectedValue")
@@ -151,8 +153,7 @@ public class ExtendedDialogPlugin: CAPPlugin, CAPBridgedPlugin {
             call.reject("message is required")
             return
         }
-        guard let optionsArray = call.getArray("options") as? [[String: String]] else {
-            call.reject("options is required")
+        guard let optionsArray = resolveOptions(call) else {
             return
         }
         let selectedValues = call.getArray("selectedValues") as? [String]
@@ -184,8 +185,23 @@ public class ExtendedDialogPlugin: CAPPlugin, CAPBridgedPlugin {
             call.reject("title is required")
             return
         }
-        guard let rowsArray = call.getArray("rows") as? [[String: String]] else {
-            call.reject("rows is required")
+        let rowsArray: [[String: String]]
+        if let rows = call.getArray("rows") as? [[String: String]] {
+            rowsArray = rows
+        } else if let optionSetId = call.getString("optionSetId") {
+            guard let options = optionSets.get(id: optionSetId) else {
+                call.reject("Unknown optionSetId: \(optionSetId)")
+                return
+            }
+            rowsArray = options.map { option -> [String: String] in
+                var row = ["title": option["label"] ?? ""]
+                if let value = option["value"], !value.isEmpty {
+                    row["value"] = value
+                }
+                return row
+            }
+        } else {
+            call.reject("rows or optionSetId is required")
             return
         }
         let subtitle = call.getString("subtitle")
@@ -240,4 +256,52 @@ public class ExtendedDialogPlugin: CAPPlugin, CAPBridgedPlugin {
             call.resolve(["confirmed": confirmed])
         }
     }
+
+    @objc func registerOptionSet(_ call: CAPPluginCall) {
+        guard let id = call.getString("id"), !id.isEmpty else {
+            call.reject("id is required")
+            return
+        }
+        guard let optionsArray = call.getArray("options") as? [[String: String]] else {
+            call.reject("options is required")
+            return
+        }
+        let persist = call.getBool("persist") ?? false
+
+        do {
+            try optionSets.register(id: id, options: optionsArray, persist: persist)
+        } catch {
+            call.reject("Failed to persist option set: \(error.localizedDescription)")
+            return
+        }
+        call.resolve([
+            "id": id,
+            "count": optionsArray.count
+        ])
+    }
+
+    @objc func unregisterOptionSet(_ call: CAPPluginCall) {
+        guard let id = call.getString("id"), !id.isEmpty else {
+            call.reject("id is required")
+            return
+        }
+        call.resolve(["removed": optionSets.unregister(id: id)])
+    }
+
+    /// The inline `options` of a select call, or the registered set named by `optionSetId`.
+    /// Rejects the call and returns nil if neither works.
+    private func resolveOptions(_ call: CAPPluginCall) -> [[String: String]]? {
+        if let optionsArray = call.getArray("options") as? [[String: String]] {
+            return optionsArray
+        }
+        guard let optionSetId = call.getString("optionSetId") else {
+            call.reject("options or optionSetId is required")
+            return nil
+        }
+        guard let options = optionSets.get(id: optionSetId) else {
+            call.reject("Unknown optionSetId: \(optionSetId)")
+            return nil
+        }
+        return options
+    }
 }
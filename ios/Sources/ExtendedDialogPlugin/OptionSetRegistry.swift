@@ -0,0 +1,69 @@
+import Foundation
+import CryptoKit
+
+/// Option lists registered with `registerOptionSet`, kept so select dialogs and sheets can
+/// refer to them by id instead of sending the list across the bridge on every call.
+/// Persisted sets are also written to Application Support and loaded lazily the first time
+/// their id is used after a restart.
+final class OptionSetRegistry {
+    private let directory: URL
+    private let lock = NSLock()
+    private var sets: [String: [[String: String]]] = [:]
+
+    init() {
+        let base = FileManager.default.urls(for: .applicationSupportDirectory, in: .userDomainMask)[0]
+        directory = base.appendingPathComponent("extended-dialog-option-sets", isDirectory: true)
+    }
+
+    /// Registers `options` under `id`, replacing any earlier set. Without `persist`, a file
+    /// left by an earlier persisted set of that id is deleted.
+    func register(id: String, options: [[String: String]], persist: Bool) throws {
+        lock.lock()
+        defer { lock.unlock() }
+        sets[id] = options
+        let file = fileURL(for: id)
+        guard persist else {
+            try? FileManager.default.removeItem(at: file)
+            return
+        }
+        try FileManager.default.createDirectory(at: directory, withIntermediateDirectories: true)
+        let data = try JSONSerialization.data(withJSONObject: options)
+        try data.write(to: file, options: .atomic)
+    }
+
+    /// Forgets `id` in memory and on disk. Returns whether it was registered.
+    func unregister(id: String) -> Bool {
+        lock.lock()
+        defer { lock.unlock() }
+        let inMemory = sets.removeValue(forKey: id) != nil
+        let file = fileURL(for: id)
+        let onDisk = FileManager.default.fileExists(atPath: file.path)
+        try? FileManager.default.removeItem(at: file)
+        return inMemory || onDisk
+    }
+
+    /// The set registered under `id`, loading a persisted one on first use; nil if unknown.
+    func get(id: String) -> [[String: String]]? {
+        lock.lock()
+        defer { lock.unlock() }
+        if let options = sets[id] {
+            return options
+        }
+        let file = fileURL(for: id)
+        guard let data = try? Data(contentsOf: file) else {
+            return nil
+        }
+        guard let options = (try? JSONSerialization.jsonObject(with: data)) as? [[String: String]] else {
+            try? FileManager.default.removeItem(at: file)
+            return nil
+        }
+        sets[id] = options
+        return options
+    }
+
+    /// Ids come from JS, so the file is named after a digest rather than the id itself.
+    private func fileURL(for id: String) -> URL {
+        let name = SHA256.hash(data: Data(id.utf8)).map { String(format: "%02x", $0) }.joined()
+        return directory.appendingPathComponent(name)
+    }
+}
@@ -1,3 +1,5 @@
+import type { PluginListenerHandle } from '@capacitor/core';
+
 /**
  * Dialog presentation mode.
  *
@@ -186,13 +188,31 @@ export interface SelectOption {
 
 export interface SingleSelectOptions extends BaseDialogOptions {
   /**
-   * List of options to display for selection.
+   * List of options to display for selection. Required unless `optionSetId` is given.
    */
-  options: SelectOption[];
+  options?: SelectOption[];
+  /**
+   * Id of an option list registered with `registerOptionSet()`, used when `options` is omitted.
+   */
+  optionSetId?: string;
   /**
    * Value of the initially selected option.
    */
   selectedValue?: string;
+  /**
+   * Show a search field above the options that filters them by label as the user types.
+   * Matching ignores case and accents. Selection is kept while filtering.
+   * Only available on Android and web.
+   *
+   * @default false
+   */
+  searchable?: boolean;
+  /**
+   * Hint shown in the search field when `searchable` is enabled.
+   *
+   * @default "Search"
+   */
+  searchPlaceholder?: string;
   /**
    * Title for the confirmation button.
    *
@@ -209,13 +229,31 @@ export interface SingleSelectOptions extends BaseDialogOptions {
 
 export interface MultiSelectOptions extends BaseDialogOptions {
   /**
-   * List of options to display for selection.
+   * List of options to display for selection. Required unless `optionSetId` is given.
    */
-  options: SelectOption[];
+  options?: SelectOption[];
+  /**
+   * Id of an option list registered with `registerOptionSet()`, used when `options` is omitted.
+   */
+  optionSetId?: string;
   /**
    * Values of the initially selected options.
    */
   selectedValues?: string[];
+  /**
+   * Show a search field above the options that filters them by label as the user types.
+   * Matching ignores case and accents. Selection is kept while filtering.
+   * Only available on Android and web.
+   *
+   * @default false
+   */
+  searchable?: boolean;
+  /**
+   * Hint shown in the search field when `searchable` is enabled.
+   *
+   * @default "Search"
+   */
+  searchPlaceholder?: string;
   /**
    * Title for the confirmation button.
    *
@@ -271,6 +309,11 @@ export interface MultiSelectResult {
 }
 
 export interface SheetRow {
+  /**
+   * Identifies the row across `updateSheet()` calls, so its title, value and logo can change
+   * in place. Defaults to the title; give rows that share a title distinct ids.
+   */
+  id?: string;
   /** Row title (required) */
   title: string;
   /**
@@ -284,6 +327,13 @@ export interface SheetRow {
 }
 
 export interface SheetOptions extends DialogStyleOptions {
+  /**
+   * Id to address the open sheet with `updateSheet()`. Generated when omitted; either way it is
+   * reported by the `sheetPresented` event and in the result. Opening a sheet with the id of one
+   * that is still open replaces it, resolving the earlier sheet as cancelled. Ids starting with
+   * `sheet-` are reserved for generated ones.
+   */
+  id?: string;
   /**
    * Header logo. Supports:
    * - PNG/JPEG/WebP/GIF as base64 data URL or HTTP/HTTPS URL
@@ -294,8 +344,13 @@ export interface SheetOptions extends DialogStyleOptions {
   title: string;
   /** Optional subtitle displayed between title and rows */
   subtitle?: string;
-  /** Description rows */
-  rows: SheetRow[];
+  /** Description rows. Required unless `optionSetId` is given. */
+  rows?: SheetRow[];
+  /**
+   * Id of an option list registered with `registerOptionSet()`, shown as rows (label as title,
+   * value on the right) when `rows` is omitted.
+   */
+  optionSetId?: string;
   /** Confirm button title */
   confirmButtonTitle?: string; // default: "Confirm"
   /** Cancel button title */
@@ -326,15 +381,110 @@ export interface MessageSheetOptions extends DialogStyleOptions {
 }
 
 export interface SheetResult {
+  /** Id the sheet was shown under. Only reported on Android and web */
+  id?: string;
   /** True if confirmed, false if cancelled */
   confirmed: boolean;
 }
 
+export interface SheetPresentedEvent {
+  /** Id to pass to `updateSheet()` */
+  id: string;
+}
+
+export interface UpdateSheetOptions {
+  /** Id of the open sheet, from `SheetOptions.id` or the `sheetPresented` event */
+  id: string;
+  /** New rows. Rows are matched to the current ones by `id` (or title); only changes are re-rendered */
+  rows?: SheetRow[];
+  /** New title */
+  title?: string;
+  /** New subtitle; an empty string removes it */
+  subtitle?: string;
+}
+
 export interface MessageSheetResult {
   /** True if confirmed, false if cancelled */
   confirmed: boolean;
 }
 
+export interface PreloadImagesOptions {
+  /** Logo sources to warm, in any format accepted by `SheetRow.logo` */
+  urls: string[];
+  /**
+   * Square display sizes in dp to decode each image at; each must be positive.
+   * Defaults to the sizes sheets use: `[24, 48, 64]` (row logo, basic and fullscreen header).
+   */
+  sizes?: number[];
+}
+
+export interface PreloadImageResult {
+  /** The source as passed in `urls` */
+  url: string;
+  /** `'loaded'` if the image is cached at every requested size, `'failed'` otherwise */
+  status: 'loaded' | 'failed';
+  /** Failure reason when `status` is `'failed'` */
+  error?: string;
+}
+
+export interface PreloadImagesResult {
+  /** One entry per URL, in the order given */
+  results: PreloadImageResult[];
+}
+
+export interface CacheStats {
+  /** Cache name, e.g. `bitmaps`, `bitmapPool`, `svgDocuments`, `svgPictures` */
+  name: string;
+  /** Number of entries held (or freed, inside `lastTrim`) */
+  entries: number;
+  /** Approximate bytes held (or freed); omitted for caches that only count entries */
+  bytes?: number;
+}
+
+export interface CacheTrimReport {
+  /** `ComponentCallbacks2` trim level that triggered the trim (80 for `onLowMemory`) */
+  level: number;
+  /** When the trim happened, in milliseconds since the epoch */
+  timestamp: number;
+  /** What each cache released */
+  freed: CacheStats[];
+}
+
+export interface CacheStatsResult {
+  /** True on low-RAM (Android Go) devices, where caches run at half size */
+  lowRamDevice: boolean;
+  /** Current contents of each in-memory cache */
+  caches: CacheStats[];
+  /** The most recent memory-pressure trim, if any */
+  lastTrim?: CacheTrimReport;
+}
+
+export interface RegisterOptionSetOptions {
+  /** Id to refer to the list by in `optionSetId` */
+  id: string;
+  /** The options; replaces any list registered earlier under the same id */
+  options: SelectOption[];
+  /** Keep the list across app restarts. Defaults to `false` (kept until the app exits) */
+  persist?: boolean;
+}
+
+export interface RegisterOptionSetResult {
+  /** The id the list was registered under */
+  id: string;
+  /** Number of options registered */
+  count: number;
+}
+
+export interface UnregisterOptionSetOptions {
+  /** Id passed to `registerOptionSet()` */
+  id: string;
+}
+
+export interface UnregisterOptionSetResult {
+  /** False if no list was registered under the id */
+  removed: boolean;
+}
+
 export interface ExtendedDialogPlugin {
   /**
    * Show an alert dialog with a single dismiss button.
@@ -374,10 +524,20 @@ export interface ExtendedDialogPlugin {
    * Show a sheet dialog with a header, title, and structured data rows.
    *
    * @param options - Sheet configuration options.
-   * @returns Whether the user confirmed or cancelled the sheet.
+   * @returns The sheet's id and whether the user confirmed or cancelled it.
    */
   sheet(options: SheetOptions): Promise<SheetResult>;
 
+  /**
+   * Update a sheet opened with `sheet()` while it is showing. Rows are diffed against the
+   * current ones, so only inserted, removed, moved and changed rows are re-rendered, with
+   * animations. Fields left out stay as they are. Rejects if no sheet with the id is open.
+   * Only available on Android and web.
+   *
+   * @param options - The sheet id and the fields to change.
+   */
+  updateSheet(options: UpdateSheetOptions): Promise<void>;
+
   /**
    * Show a message sheet dialog with an optional header logo, title, and message.
    *
@@ -385,4 +545,47 @@ export interface ExtendedDialogPlugin {
    * @returns Whether the user confirmed or cancelled the sheet.
    */
   messageSheet(options: MessageSheetOptions): Promise<MessageSheetResult>;
+
+  /**
+   * Fetch, decode and cache logos ahead of a `sheet()` or `messageSheet()` call so they
+   * appear immediately when the sheet opens. Only available on Android and web.
+   *
+   * @param options - Preload configuration options.
+   * @returns The load status of each URL.
+   */
+  preloadImages(options: PreloadImagesOptions): Promise<PreloadImagesResult>;
+
+  /**
+   * Report the size of the plugin's in-memory image caches and what the last
+   * memory-pressure trim freed. Intended for diagnostics. Only available on Android and web.
+   *
+   * @returns Per-cache statistics.
+   */
+  getCacheStats(): Promise<CacheStatsResult>;
+
+  /**
+   * Register an option list once so `singleSelect()`, `multiSelect()` and `sheet()` can refer
+   * to it by `optionSetId` instead of sending it on every call.
+   *
+   * @param options - Option set to register.
+   * @returns The id and number of options registered.
+   */
+  registerOptionSet(options: RegisterOptionSetOptions): Promise<RegisterOptionSetResult>;
+
+  /**
+   * Forget an option list registered with `registerOptionSet()`, including its persisted copy.
+   *
+   * @param options - Option set to remove.
+   * @returns Whether a list was registered under the id.
+   */
+  unregisterOptionSet(options: UnregisterOptionSetOptions): Promise<UnregisterOptionSetResult>;
+
+  /**
+   * Called when `sheet()` shows a sheet, with the id to pass to `updateSheet()`.
+   * Only available on Android and web.
+   */
+  addListener(
+    eventName: 'sheetPresented',
+    listenerFunc: (event: SheetPresentedEvent) => void,
+  ): Promise<PluginListenerHandle>;
 }
@@ -15,10 +15,45 @@ import type {
   SheetResult,
   MessageSheetOptions,
   MessageSheetResult,
+  PreloadImagesOptions,
+  PreloadImageResult,
+  PreloadImagesResult,
+  CacheStatsResult,
+  RegisterOptionSetOptions,
+  RegisterOptionSetResult,
+  UnregisterOptionSetOptions,
+  UnregisterOptionSetResult,
+  SelectOption,
+  SheetRow,
+  UpdateSheetOptions,
   DialogStyleOptions,
 } from './definitions';
 
+const OPTION_SET_STORAGE_PREFIX = 'extended-dialog-option-set:';
+
+/** Prefix of generated sheet ids; callers may not choose ids starting with it. */
+const GENERATED_SHEET_ID_PREFIX = 'sheet-';
+
+interface SheetRowElement {
+  key: string;
+  element: HTMLDivElement;
+  logo: HTMLImageElement;
+  title: HTMLSpanElement;
+  value: HTMLSpanElement;
+  /** The row as last rendered, to tell which parts an update changed */
+  row: SheetRow;
+}
+
+interface OpenSheet {
+  update: (changes: UpdateSheetOptions) => void;
+  close: (confirmed: boolean) => void;
+}
+
 export class ExtendedDialogWeb extends WebPlugin implements ExtendedDialogPlugin {
+  private readonly optionSets = new Map<string, SelectOption[]>();
+  private readonly openSheets = new Map<string, OpenSheet>();
+  private nextSheetId = 0;
+
   async alert(options: AlertOptions): Promise<void> {
     const message = options.title ? `${options.title}\n\n${options.message}` : options.message;
     window.alert(message);
@@ -42,6 +77,7 @@ export class ExtendedDialogWeb extends WebPlugin implements ExtendedDialogPlugin
   }
 
   async singleSelect(options: SingleSelectOptions): Promise<SingleSelectResult> {
+    const selectOptions = this.resolveOptions(options.options, options.optionSetId);
     return new Promise((resolve) => {
       const overlay = this.createOverlay();
       const dialog = this.createDialogContainer(options.title, options.message, options);
@@ -51,7 +87,7 @@ export class ExtendedDialogWeb extends WebPlugin implements ExtendedDialogPlugin
 
       let selectedValue = options.selectedValue ?? null;
 
-      options.options.forEach((option) => {
+      selectOptions.forEach((option) => {
         const label = document.createElement('label');
         label.style.cssText =
           'display: flex; align-items: center; padding: 12px 0; cursor: pointer; border-bottom: 1px solid #e0e0e0;';
@@ -75,6 +111,9 @@ export class ExtendedDialogWeb extends WebPlugin implements ExtendedDialogPlugin
         optionsContainer.appendChild(label);
       });
 
+      if (options.searchable) {
+        dialog.appendChild(this.createSearchField(optionsContainer, options.searchPlaceholder));
+      }
       dialog.appendChild(optionsContainer);
 
       const buttonContainer = this.createButtonContainer(options.contentButtonSpacing);
@@ -108,6 +147,7 @@ export class ExtendedDialogWeb extends WebPlugin implements ExtendedDialogPlugin
   }
 
   async multiSelect(options: MultiSelectOptions): Promise<MultiSelectResult> {
+    const selectOptions = this.resolveOptions(options.options, options.optionSetId);
     return new Promise((resolve) => {
       const overlay = this.createOverlay();
       const dialog = this.createDialogContainer(options.title, options.message, options);
@@ -117,7 +157,7 @@ export class ExtendedDialogWeb extends WebPlugin implements ExtendedDialogPlugin
 
       const selectedValues = new Set(options.selectedValues ?? []);
 
-      options.options.forEach((option) => {
+      selectOptions.forEach((option) => {
         const label = document.createElement('label');
         label.style.cssText =
           'display: flex; align-items: center; padding: 12px 0; cursor: pointer; border-bottom: 1px solid #e0e0e0;';
@@ -144,6 +184,9 @@ export class ExtendedDialogWeb extends WebPlugin implements ExtendedDialogPlugin
         optionsContainer.appendChild(label);
       });
 
+      if (options.searchable) {
+        dialog.appendChild(this.createSearchField(optionsContainer, options.searchPlaceholder));
+      }
       dialog.appendChild(optionsContainer);
 
       const buttonContainer = this.createButtonContainer(options.contentButtonSpacing);
@@ -259,11 +302,40 @@ export class ExtendedDialogWeb extends WebPlugin implements ExtendedDialogPlugin
     return button;
   }
 
+  private createSearchField(optionsContainer: HTMLDivElement, placeholder?: string): HTMLInputElement {
+    const input = document.createElement('input');
+    input.type = 'search';
+    input.placeholder = placeholder ?? 'Search';
+    input.style.cssText =
+      'width: 100%; box-sizing: border-box; margin-top: 16px; padding: 10px 12px; font-size: 16px; border: 1px solid #ccc; border-radius: 4px;';
+    input.addEventListener('input', () => {
+      const query = normalizeSearchText(input.value.trim());
+      Array.from(optionsContainer.children).forEach((child) => {
+        const label = child as HTMLElement;
+        label.style.display = !query || normalizeSearchText(label.textContent ?? '').includes(query) ? 'flex' : 'none';
+      });
+    });
+    return input;
+  }
+
   private removeOverlay(overlay: HTMLDivElement): void {
     overlay.remove();
   }
 
   async sheet(options: SheetOptions): Promise<SheetResult> {
+    if (!options.rows && options.optionSetId === undefined) {
+      throw new Error('rows or optionSetId is required');
+    }
+    const rows: SheetRow[] =
+      options.rows ??
+      this.resolveOptions(undefined, options.optionSetId).map((option) => ({
+        title: option.label,
+        value: option.value || undefined,
+      }));
+    if (options.id?.startsWith(GENERATED_SHEET_ID_PREFIX)) {
+      throw new Error(`Sheet ids starting with "${GENERATED_SHEET_ID_PREFIX}" are reserved`);
+    }
+    const sheetId = options.id || `${GENERATED_SHEET_ID_PREFIX}${this.nextSheetId++}`;
     return new Promise((resolve) => {
       const overlay = this.createOverlay();
       const dialog = this.createSheetDialogContainer(options);
@@ -298,14 +370,14 @@ export class ExtendedDialogWeb extends WebPlugin implements ExtendedDialogPlugin
       titleEl.style.cssText = `margin: 0; font-size: ${titleFontSize}px; font-weight: 600; color: ${titleColor}; text-align: center;`;
       headerSection.appendChild(titleEl);
 
-      if (options.subtitle) {
-        const subtitleEl = document.createElement('p');
-        subtitleEl.textContent = options.subtitle;
-        const subtitleFontSize = options.messageFontSize ?? 14;
-        const subtitleColor = options.messageColor ?? '#666';
-        subtitleEl.style.cssText = `margin: 4px 0 0 0; font-size: ${subtitleFontSize}px; font-weight: 400; color: ${subtitleColor}; text-align: center;`;
-        headerSection.appendChild(subtitleEl);
-      }
+      // Always created so updateSheet() can show a subtitle the sheet opened without
+      const subtitleEl = document.createElement('p');
+      subtitleEl.textContent = options.subtitle ?? '';
+      const subtitleFontSize = options.messageFontSize ?? 14;
+      const subtitleColor = options.messageColor ?? '#666';
+      subtitleEl.style.cssText = `margin: 4px 0 0 0; font-size: ${subtitleFontSize}px; font-weight: 400; color: ${subtitleColor}; text-align: center;`;
+      subtitleEl.style.display = options.subtitle ? '' : 'none';
+      headerSection.appendChild(subtitleEl);
 
       dialog.appendChild(headerSection);
 
@@ -313,51 +385,15 @@ export class ExtendedDialogWeb extends WebPlugin implements ExtendedDialogPlugin
       const rowsContainer = document.createElement('div');
       rowsContainer.style.cssText = 'display: flex; flex-direction: column; gap: 0; margin-bottom: 24px;';
 
-      options.rows.forEach((row, index) => {
-        const rowEl = document.createElement('div');
-        rowEl.style.cssText = `
-          display: flex;
-          align-items: center;
-          padding: 16px 0;
-          ${index < options.rows.length - 1 ? 'border-bottom: 1px solid #e0e0e0;' : ''}
-        `;
-
-        if (row.logo) {
-          const rowLogo = document.createElement('img');
-          rowLogo.src = row.logo;
-          rowLogo.style.cssText =
-            'width: 24px; height: 24px; object-fit: contain; margin-right: 12px; border-radius: 4px; flex-shrink: 0;';
-          rowLogo.onerror = () => {
-            rowLogo.style.display = 'none';
-          };
-          rowEl.appendChild(rowLogo);
-        }
-
-        const rowTitle = document.createElement('span');
-        rowTitle.textContent = row.title;
-        const messageFontSize = options.messageFontSize ?? 16;
-        const messageColor = options.messageColor ?? '#333';
-        rowTitle.style.cssText = `font-size: ${messageFontSize}px; color: ${messageColor}; flex: 1;`;
-        rowEl.appendChild(rowTitle);
-
-        if (row.value) {
-          const rowValue = document.createElement('span');
-          rowValue.textContent = row.value;
-          rowValue.style.cssText = `font-size: ${messageFontSize}px; color: #666; text-align: right; margin-left: 12px;`;
-          rowEl.appendChild(rowValue);
-        }
-
-        rowsContainer.appendChild(rowEl);
-      });
-
+      let rowEls = this.renderSheetRows(rowsContainer, [], rows, options);
       dialog.appendChild(rowsContainer);
 
       // For sheets with ≤4 rows and no explicit spacing, add extra spacing to reach ~50% viewport height
       let sheetSpacing = options.contentButtonSpacing;
-      if (sheetSpacing === undefined && options.rows.length <= 4) {
+      if (sheetSpacing === undefined && rows.length <= 4) {
         const targetHeight = window.innerHeight * 0.5;
         // Estimate content: padding(48) + header(~80) + rows(~49 each) + buttons(~44) + default spacing(24)
-        const estimatedHeight = 48 + 80 + options.rows.length * 49 + 44 + 24;
+        const estimatedHeight = 48 + 80 + rows.length * 49 + 44 + 24;
         if (targetHeight > estimatedHeight) {
           sheetSpacing = 24 + (targetHeight - estimatedHeight);
         }
@@ -366,32 +402,137 @@ export class ExtendedDialogWeb extends WebPlugin implements ExtendedDialogPlugin
       // Button container
       const buttonContainer = this.createButtonContainer(sheetSpacing);
 
-      const cancelButton = this.createButton(
-        options.cancelButtonTitle ?? 'Cancel',
-        false,
-        () => {
-          this.removeOverlay(overlay);
-          resolve({ confirmed: false });
-        },
-        options,
-      );
+      const close = (confirmed: boolean) => {
+        if (this.openSheets.get(sheetId)?.close === close) {
+          this.openSheets.delete(sheetId);
+        }
+        this.removeOverlay(overlay);
+        resolve({ id: sheetId, confirmed });
+      };
 
-      const confirmButton = this.createButton(
-        options.confirmButtonTitle ?? 'Confirm',
-        true,
-        () => {
-          this.removeOverlay(overlay);
-          resolve({ confirmed: true });
-        },
-        options,
-      );
+      const update = (changes: UpdateSheetOptions) => {
+        if (changes.title !== undefined) {
+          titleEl.textContent = changes.title;
+        }
+        if (changes.subtitle !== undefined) {
+          subtitleEl.textContent = changes.subtitle;
+          subtitleEl.style.display = changes.subtitle ? '' : 'none';
+        }
+        if (changes.rows) {
+          rowEls = this.renderSheetRows(rowsContainer, rowEls, changes.rows, options);
+        }
+      };
+
+      const cancelButton = this.createButton(options.cancelButtonTitle ?? 'Cancel', false, () => close(false), options);
+
+      const confirmButton = this.createButton(options.confirmButtonTitle ?? 'Confirm', true, () => close(true), options);
 
       buttonContainer.appendChild(cancelButton);
       buttonContainer.appendChild(confirmButton);
       dialog.appendChild(buttonContainer);
       overlay.appendChild(dialog);
       document.body.appendChild(overlay);
+
+      // A sheet still open under the same id is replaced, resolving as cancelled
+      this.openSheets.get(sheetId)?.close(false);
+      this.openSheets.set(sheetId, { update, close });
+      this.notifyListeners('sheetPresented', { id: sheetId });
+    });
+  }
+
+  async updateSheet(options: UpdateSheetOptions): Promise<void> {
+    const sheet = this.openSheets.get(options.id);
+    if (!sheet) {
+      throw new Error(`No open sheet with id: ${options.id}`);
+    }
+    sheet.update(options);
+  }
+
+  /**
+   * Reconciles `rowsContainer` with `rows`. Rows are keyed on `id`, or on the title when
+   * they have none, so a row that stays keeps its element and only the title, value or
+   * logo that changed is touched; new rows fade in. Returns the elements in their new order.
+   */
+  private renderSheetRows(
+    rowsContainer: HTMLDivElement,
+    current: SheetRowElement[],
+    rows: SheetRow[],
+    options: SheetOptions,
+  ): SheetRowElement[] {
+    const byKey = new Map<string, SheetRowElement[]>();
+    current.forEach((rowEl) => {
+      const matches = byKey.get(rowEl.key);
+      if (matches) {
+        matches.push(rowEl);
+      } else {
+        byKey.set(rowEl.key, [rowEl]);
+      }
+    });
+
+    const messageFontSize = options.messageFontSize ?? 16;
+    const messageColor = options.messageColor ?? '#333';
+    const next = rows.map((row) => {
+      const key = row.id ?? row.title;
+      const reused = byKey.get(key)?.shift();
+      if (reused) {
+        this.fillSheetRow(reused, row, reused.row);
+        return reused;
+      }
+
+      const element = document.createElement('div');
+      element.style.cssText = 'display: flex; align-items: center; padding: 16px 0;';
+
+      // Always created so an update can add, change or remove the logo in place
+      const logo = document.createElement('img');
+      logo.style.cssText = 'width: 24px; height: 24px; object-fit: contain; margin-right: 12px; border-radius: 4px; flex-shrink: 0;';
+      logo.onerror = () => {
+        logo.style.display = 'none';
+      };
+      element.appendChild(logo);
+
+      const title = document.createElement('span');
+      title.style.cssText = `font-size: ${messageFontSize}px; color: ${messageColor}; flex: 1;`;
+      element.appendChild(title);
+
+      const value = document.createElement('span');
+      value.style.cssText = `font-size: ${messageFontSize}px; color: #666; text-align: right; margin-left: 12px;`;
+      element.appendChild(value);
+
+      const rowEl: SheetRowElement = { key, element, logo, title, value, row };
+      this.fillSheetRow(rowEl, row, undefined);
+      if (current.length > 0) {
+        element.animate?.([{ opacity: 0 }, { opacity: 1 }], { duration: 200 });
+      }
+      return rowEl;
+    });
+
+    byKey.forEach((stale) => stale.forEach((rowEl) => rowEl.element.remove()));
+    // appendChild moves elements that are already in the container, so this also applies moves
+    next.forEach((rowEl, index) => {
+      rowEl.element.style.borderBottom = index < next.length - 1 ? '1px solid #e0e0e0' : '';
+      rowsContainer.appendChild(rowEl.element);
     });
+    return next;
+  }
+
+  /** Writes the parts of `row` that differ from `previous`, or all of them for a new element. */
+  private fillSheetRow(rowEl: SheetRowElement, row: SheetRow, previous: SheetRow | undefined): void {
+    if (!previous || previous.logo !== row.logo) {
+      if (row.logo) {
+        rowEl.logo.src = row.logo;
+      } else {
+        rowEl.logo.removeAttribute('src');
+      }
+      rowEl.logo.style.display = row.logo ? '' : 'none';
+    }
+    if (!previous || previous.title !== row.title) {
+      rowEl.title.textContent = row.title;
+    }
+    if (!previous || previous.value !== row.value) {
+      rowEl.value.textContent = row.value ?? '';
+      rowEl.value.style.display = row.value ? '' : 'none';
+    }
+    rowEl.row = row;
   }
 
   async messageSheet(options: MessageSheetOptions): Promise<MessageSheetResult> {
@@ -484,6 +625,62 @@ export class ExtendedDialogWeb extends WebPlugin implements ExtendedDialogPlugin
     });
   }
 
+  async preloadImages(options: PreloadImagesOptions): Promise<PreloadImagesResult> {
+    if (options.sizes?.some((size) => !(size > 0))) {
+      throw new Error('sizes must be positive');
+    }
+    // The browser's HTTP and image caches do the work; sizes don't apply to <img> decoding.
+    const results = await Promise.all(
+      options.urls.map(
+        (url) =>
+          new Promise<PreloadImageResult>((resolve) => {
+            const image = new Image();
+            image.onload = () => resolve({ url, status: 'loaded' });
+            image.onerror = () => resolve({ url, status: 'failed', error: 'Failed to load image' });
+            image.src = url;
+          }),
+      ),
+    );
+    return { results };
+  }
+
+  async getCacheStats(): Promise<CacheStatsResult> {
+    // The web build keeps no caches of its own; the browser manages image memory.
+    return { lowRamDevice: false, caches: [] };
+  }
+
+  async registerOptionSet(options: RegisterOptionSetOptions): Promise<RegisterOptionSetResult> {
+    this.optionSets.set(options.id, options.options);
+    const key = OPTION_SET_STORAGE_PREFIX + options.id;
+    if (options.persist) {
+      localStorage.setItem(key, JSON.stringify(options.options));
+    } else {
+      localStorage.removeItem(key);
+    }
+    return { id: options.id, count: options.options.length };
+  }
+
+  async unregisterOptionSet(options: UnregisterOptionSetOptions): Promise<UnregisterOptionSetResult> {
+    const key = OPTION_SET_STORAGE_PREFIX + options.id;
+    const removed = this.optionSets.delete(options.id) || localStorage.getItem(key) !== null;
+    localStorage.removeItem(key);
+    return { removed };
+  }
+
+  private resolveOptions(options: SelectOption[] | undefined, optionSetId: string | undefined): SelectOption[] {
+    if (options) return options;
+    if (optionSetId === undefined) throw new Error('options or optionSetId is required');
+    let registered = this.optionSets.get(optionSetId);
+    if (!registered) {
+      // Persisted sets are loaded lazily, the first time they are used after a reload.
+      const stored = localStorage.getItem(OPTION_SET_STORAGE_PREFIX + optionSetId);
+      if (stored === null) throw new Error(`Unknown optionSetId: ${optionSetId}`);
+      registered = JSON.parse(stored) as SelectOption[];
+      this.optionSets.set(optionSetId, registered);
+    }
+    return registered;
+  }
+
   private createSheetDialogContainer(options: SheetOptions): HTMLDivElement {
     const dialog = document.createElement('div');
     const bgColor = options.backgroundColor ?? 'white';
@@ -518,3 +715,8 @@ export class ExtendedDialogWeb extends WebPlugin implements ExtendedDialogPlugin
     return dialog;
   }
 }
+
+/** Lower-cases and strips accents so "Éire" matches "eire", as on Android. */
+function normalizeSearchText(text: string): string {
+  return text.toLowerCase().normalize('NFD').replace(/[\u0300-\u036f]/g, '');
+}